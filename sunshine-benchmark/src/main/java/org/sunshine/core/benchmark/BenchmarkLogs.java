@@ -0,0 +1,41 @@
+package org.sunshine.core.benchmark;
+
+import org.sunshine.core.log.model.OperateLog;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测使用的操作日志，字段长度与线上常见日志接近
+ *
+ * @author Teamo
+ * @since 2024/9/3
+ */
+final class BenchmarkLogs {
+
+    private BenchmarkLogs() {
+    }
+
+    static List<OperateLog> create(int count) {
+        List<OperateLog> logs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OperateLog operateLog = new OperateLog();
+            operateLog.setTitle("修改订单");
+            operateLog.setServerIp("10.0.0.1");
+            operateLog.setServerHost("order-service-0");
+            operateLog.setRemoteIp("192.168.1.100");
+            operateLog.setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/127.0 Safari/537.36");
+            operateLog.setRequestUri("/api/order/update");
+            operateLog.setMethod("POST");
+            operateLog.setMethodClass("com.example.order.controller.OrderController");
+            operateLog.setMethodName("update");
+            operateLog.setParams("{\"id\":" + i + ",\"status\":\"PAID\",\"remark\":\"benchmark\"}");
+            operateLog.setTime("12");
+            operateLog.setCreateBy("admin");
+            operateLog.setGmtCreate(LocalDateTime.now());
+            logs.add(operateLog);
+        }
+        return logs;
+    }
+}
@@ -0,0 +1,100 @@
+package org.sunshine.core.benchmark;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import org.apache.ibatis.mapping.Environment;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.openjdk.jmh.annotations.*;
+import org.sunshine.core.log.model.OperateLog;
+import org.sunshine.core.log.sink.DatabaseLogSink;
+import org.sunshine.core.mp.extension.injector.InsertBatchSqlInjector;
+import org.sunshine.core.mp.handler.AutoFillMetaObjectHandler;
+import org.sunshine.core.mp.mapper.BatchBaseMapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DatabaseLogSink}每批写入耗时，使用H2内存数据库(MySQL模式)，Mapper继承{@link BatchBaseMapper}，一批日志使用一条INSERT。
+ * 只反映SQL构建及JDBC开销，不包含网络及磁盘，需在真实数据库上对比时替换数据源
+ *
+ * @author Teamo
+ * @since 2024/9/3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseLogSinkBenchmark {
+
+    private final static String URL = "jdbc:h2:mem:operate_log;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private final static String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS sys_operate_log ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, title VARCHAR(300), server_ip VARCHAR(20), server_host VARCHAR(50), "
+            + "remote_ip VARCHAR(20), user_agent VARCHAR(400), request_uri VARCHAR(100), method VARCHAR(10), "
+            + "method_class VARCHAR(100), method_name VARCHAR(50), params TEXT, time VARCHAR(20), create_by VARCHAR(64), "
+            + "gmt_create DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    @Param({"1", "100", "500"})
+    private int batchSize;
+
+    private JdbcDataSource dataSource;
+
+    private DatabaseLogSink sink;
+
+    private List<OperateLog> logs;
+
+    @Setup
+    public void setup() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL(URL);
+        execute(CREATE_TABLE);
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        // 连接为自动提交，与未开启事务时的Spring环境一致
+        configuration.setEnvironment(new Environment("benchmark", new SpringManagedTransactionFactory(), dataSource));
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.setBanner(false);
+        globalConfig.setSqlInjector(new InsertBatchSqlInjector());
+        globalConfig.setMetaObjectHandler(new AutoFillMetaObjectHandler());
+        GlobalConfigUtils.setGlobalConfig(configuration, globalConfig);
+        configuration.addMapper(OperateLogMapper.class);
+        new MybatisSqlSessionFactoryBuilder().build(configuration);
+
+        sink = new DatabaseLogSink();
+        logs = BenchmarkLogs.create(batchSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        // 每轮清空，避免表持续增长影响结果
+        execute("TRUNCATE TABLE sys_operate_log");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        execute("DROP TABLE sys_operate_log");
+    }
+
+    @Benchmark
+    public void write() {
+        sink.write(logs);
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    public interface OperateLogMapper extends BatchBaseMapper<OperateLog> {
+    }
+}
@@ -0,0 +1,55 @@
+package org.sunshine.core.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.sunshine.core.log.model.OperateLog;
+import org.sunshine.core.log.sink.FileLogSink;
+import org.sunshine.core.tool.util.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileLogSink}每批写入耗时，写入临时目录，结束后删除
+ *
+ * @author Teamo
+ * @since 2024/9/3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileLogSinkBenchmark {
+
+    @Param({"1", "100", "500"})
+    private int batchSize;
+
+    private Path dir;
+
+    private FileLogSink sink;
+
+    private List<OperateLog> logs;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("file-log-sink-benchmark");
+        sink = new FileLogSink(dir.toString(), 100L * 1024L * 1024L, Duration.ofDays(1L));
+        logs = BenchmarkLogs.create(batchSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        sink.destroy();
+        FileUtils.deleteQuietly(dir.toFile());
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        sink.write(logs);
+    }
+}
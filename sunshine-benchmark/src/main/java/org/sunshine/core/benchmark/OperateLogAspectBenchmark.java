@@ -0,0 +1,96 @@
+package org.sunshine.core.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.sunshine.core.log.OperateLogAppender;
+import org.sunshine.core.log.SimpleLogExecutor;
+import org.sunshine.core.log.annotation.OperateLog;
+import org.sunshine.core.log.aspect.OperateLogAspect;
+import org.sunshine.core.log.properties.OperateLogProperties;
+import org.sunshine.core.log.sink.LogSink;
+import org.sunshine.core.log.writer.OperateLogWriter;
+import org.sunshine.core.tool.config.ServerInfo;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OperateLog}注解方法在调用线程上的额外耗时：direct为不经过代理的调用，
+ * noop为经过切面但appender直接丢弃，writer为写入{@link OperateLogWriter}的缓冲区，LogSink不做任何处理
+ *
+ * @author Teamo
+ * @since 2024/9/3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperateLogAspectBenchmark {
+
+    @Param({"noop", "writer"})
+    private String appender;
+
+    private OrderService direct;
+
+    private OrderService proxy;
+
+    private OperateLogWriter writer;
+
+    @Setup
+    public void setup() {
+        OperateLogAppender operateLogAppender;
+        if ("writer".equals(appender)) {
+            OperateLogProperties.Writer properties = new OperateLogProperties.Writer();
+            writer = new OperateLogWriter(properties, new ServerInfo(new ServerProperties()), null, new NoopLogSink());
+            writer.afterPropertiesSet();
+            operateLogAppender = writer;
+        } else {
+            operateLogAppender = operateLog -> true;
+        }
+        direct = new OrderService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new OrderService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new OperateLogAspect(new SimpleLogExecutor(operateLogAppender)));
+        proxy = factory.getProxy();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (writer != null) {
+            writer.destroy();
+        }
+    }
+
+    @Benchmark
+    public String direct() {
+        return direct.update("1");
+    }
+
+    @Benchmark
+    public String proxy() {
+        return proxy.update("1");
+    }
+
+    public static class OrderService {
+
+        @OperateLog("修改订单")
+        public String update(String id) {
+            return id;
+        }
+    }
+
+    private static class NoopLogSink implements LogSink {
+
+        @Override
+        public String getName() {
+            return "noop";
+        }
+
+        @Override
+        public void write(List<org.sunshine.core.log.model.OperateLog> logs) {
+        }
+    }
+}
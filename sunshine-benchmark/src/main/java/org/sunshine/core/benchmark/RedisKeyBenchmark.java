@@ -0,0 +1,71 @@
+package org.sunshine.core.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import org.openjdk.jmh.annotations.*;
+import org.sunshine.core.cache.RedisKey;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RedisKey#buildKey}耗时，string为手写拼接的基准，simple为只包含变量的模板(直接拼接)，spel为包含表达式的模板(SpEL编译模式)
+ *
+ * @author Teamo
+ * @since 2024/9/3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisKeyBenchmark {
+
+    private final String tenantId = "t1";
+
+    private final long orderId = 1024L;
+
+    private final ImmutableMap<String, String> params = ImmutableMap.of("tenantId", tenantId, "orderId", String.valueOf(orderId));
+
+    @Benchmark
+    public String string() {
+        return "order:" + tenantId + ":" + orderId;
+    }
+
+    @Benchmark
+    public String simpleKeyValues() {
+        return BenchmarkKey.ORDER.buildKey("tenantId", tenantId, "orderId", orderId);
+    }
+
+    @Benchmark
+    public String simpleMap() {
+        return BenchmarkKey.ORDER.buildKey(params);
+    }
+
+    @Benchmark
+    public String spelKeyValues() {
+        return BenchmarkKey.ORDER_UPPER.buildKey("tenantId", tenantId, "orderId", orderId);
+    }
+
+    enum BenchmarkKey implements RedisKey {
+
+        ORDER("order:#{#tenantId}:#{#orderId}"),
+
+        ORDER_UPPER("order:#{#tenantId.toUpperCase()}:#{#orderId}");
+
+        private final String template;
+
+        BenchmarkKey(String template) {
+            this.template = template;
+        }
+
+        @Override
+        public String getTemplate() {
+            return template;
+        }
+
+        @Override
+        public Long getExpire() {
+            return 60L;
+        }
+    }
+}
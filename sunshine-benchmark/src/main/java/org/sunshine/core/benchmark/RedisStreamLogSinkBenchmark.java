@@ -0,0 +1,73 @@
+package org.sunshine.core.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.sunshine.core.cache.RedisMQTemplateImpl;
+import org.sunshine.core.cache.properties.RedisStreamProperties;
+import org.sunshine.core.log.model.OperateLog;
+import org.sunshine.core.log.sink.RedisStreamLogSink;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RedisStreamLogSink}每批写入耗时，需要可访问的Redis，通过-Dredis.host、-Dredis.port指定，默认为localhost:6379。
+ * 写入的stream只保留最近的消息，结束后删除
+ *
+ * @author Teamo
+ * @since 2024/9/3
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisStreamLogSinkBenchmark {
+
+    private final static String STREAM_KEY = "benchmark:operate-log";
+
+    @Param({"1", "100", "500"})
+    private int batchSize;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private RedisStreamLogSink sink;
+
+    private List<OperateLog> logs;
+
+    @Setup
+    public void setup() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379));
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setHashKeySerializer(RedisSerializer.string());
+        redisTemplate.afterPropertiesSet();
+
+        // 写入时裁剪，stream不会无限增长
+        RedisStreamProperties properties = new RedisStreamProperties();
+        properties.setMaxLen(10000L);
+        sink = new RedisStreamLogSink(new RedisMQTemplateImpl(redisTemplate, properties), STREAM_KEY, 1);
+        logs = BenchmarkLogs.create(batchSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisTemplate.delete(STREAM_KEY);
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public void write() {
+        sink.write(logs);
+    }
+}
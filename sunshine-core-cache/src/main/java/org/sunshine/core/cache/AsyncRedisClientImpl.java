@@ -0,0 +1,294 @@
+package org.sunshine.core.cache;
+
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.publisher.Flux;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * @author Teamo
+ * @since 2024/8/19
+ */
+public class AsyncRedisClientImpl implements AsyncRedisClient {
+
+    private final ReactiveRedisClient reactiveRedisClient;
+
+    public AsyncRedisClientImpl(ReactiveRedisClient reactiveRedisClient) {
+        this.reactiveRedisClient = reactiveRedisClient;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> expire(String key, long time) {
+        return reactiveRedisClient.expire(key, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> getExpire(String key) {
+        return reactiveRedisClient.getExpire(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasKey(String key) {
+        return reactiveRedisClient.hasKey(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> del(String... key) {
+        return reactiveRedisClient.del(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Object> get(String key) {
+        return reactiveRedisClient.get(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(String key, Object value) {
+        return reactiveRedisClient.set(key, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> set(String key, Object value, long time) {
+        return reactiveRedisClient.set(key, value, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> incr(String key, long delta) {
+        return reactiveRedisClient.incr(key, delta).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> decr(String key, long delta) {
+        return reactiveRedisClient.decr(key, delta).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<List<Object>> multiGet(Collection<String> keys) {
+        return reactiveRedisClient.multiGet(keys).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Object> hget(String key, String item) {
+        return reactiveRedisClient.hget(key, item).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> hmget(String key) {
+        return reactiveRedisClient.hmget(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hmset(String key, Map<String, Object> map) {
+        return reactiveRedisClient.hmset(key, map).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hmset(String key, Map<String, Object> map, long time) {
+        return reactiveRedisClient.hmset(key, map, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hset(String key, String item, Object value) {
+        return reactiveRedisClient.hset(key, item, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hset(String key, String item, Object value, long time) {
+        return reactiveRedisClient.hset(key, item, value, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> hdel(String key, Object... item) {
+        return reactiveRedisClient.hdel(key, item).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hHasKey(String key, String item) {
+        return reactiveRedisClient.hHasKey(key, item).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Double> hincr(String key, String item, double by) {
+        return reactiveRedisClient.hincr(key, item, by).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Double> hdecr(String key, String item, double by) {
+        return reactiveRedisClient.hdecr(key, item, by).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Set<Object>> sGet(String key) {
+        return reactiveRedisClient.sGet(key).collect(Collectors.toSet()).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sHasKey(String key, Object value) {
+        return reactiveRedisClient.sHasKey(key, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> sSet(String key, Object... values) {
+        return reactiveRedisClient.sSet(key, values).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> sSetWitExpire(String key, long time, Object... values) {
+        return reactiveRedisClient.sSetWitExpire(key, time, values).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> sSize(String key) {
+        return reactiveRedisClient.sSize(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> sDel(String key, Object... values) {
+        return reactiveRedisClient.sDel(key, values).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<List<Object>> lGet(String key, long start, long end) {
+        return reactiveRedisClient.lGet(key, start, end).collectList().toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> lSize(String key) {
+        return reactiveRedisClient.lSize(key).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Object> lIndex(String key, long index) {
+        return reactiveRedisClient.lIndex(key, index).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> lSet(String key, Object value) {
+        return reactiveRedisClient.lSet(key, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> lSet(String key, Object value, long time) {
+        return reactiveRedisClient.lSet(key, value, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> lSet(String key, List<Object> value) {
+        return reactiveRedisClient.lSet(key, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> lSet(String key, List<Object> value, long time) {
+        return reactiveRedisClient.lSet(key, value, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> lUpdateIndex(String key, long index, Object value) {
+        return reactiveRedisClient.lUpdateIndex(key, index, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> lDel(String key, long count, Object value) {
+        return reactiveRedisClient.lDel(key, count, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> zsSet(String key, Object value, double score) {
+        return reactiveRedisClient.zsSet(key, value, score).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Double> zsIncrScore(String key, Object value, double score) {
+        return reactiveRedisClient.zsIncrScore(key, value, score).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Double> zsDecrScore(String key, Object value, double score) {
+        return reactiveRedisClient.zsDecrScore(key, value, score).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> zsBatchSet(String key, Set<ZSetOperations.TypedTuple<Object>> tuples) {
+        return reactiveRedisClient.zsBatchSet(key, tuples).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> zsReverseRank(String key, Object value) {
+        return reactiveRedisClient.zsReverseRank(key, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Double> zsScore(String key, Object value) {
+        return reactiveRedisClient.zsScore(key, value).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Set<ZSetOperations.TypedTuple<Object>>> zsRangeWithScores(String key, long start, long end) {
+        return toOrderedSet(reactiveRedisClient.zsRangeWithScores(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Set<ZSetOperations.TypedTuple<Object>>> zsReverseRangeWithScores(String key, long start, long end) {
+        return toOrderedSet(reactiveRedisClient.zsReverseRangeWithScores(key, start, end));
+    }
+
+    @Override
+    public CompletableFuture<Void> multiSet(Map<String, Object> map, long time) {
+        return reactiveRedisClient.multiSet(map, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> multiSet(Map<String, Object> map, ToLongFunction<String> time) {
+        return reactiveRedisClient.multiSet(map, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Map<String, Object>>> multiHmget(Collection<String> keys) {
+        return reactiveRedisClient.multiHmget(keys).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> multiDel(Collection<String> keys) {
+        return reactiveRedisClient.multiDel(keys).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> multiExpire(Collection<String> keys, long time) {
+        return reactiveRedisClient.multiExpire(keys, time).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> multiIncr(Map<String, Long> deltas) {
+        return reactiveRedisClient.multiIncr(deltas).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<List<String>> scan(String pattern, long count) {
+        return reactiveRedisClient.scan(pattern, count).collectList().toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> batchDel(String pattern) {
+        return reactiveRedisClient.batchDel(pattern).toFuture();
+    }
+
+    @Override
+    public CompletableFuture<Long> deleteByPattern(String pattern) {
+        return reactiveRedisClient.deleteByPattern(pattern).toFuture();
+    }
+
+    @Override
+    public ReactiveRedisClient reactiveRedisClient() {
+        return this.reactiveRedisClient;
+    }
+
+    /**
+     * 保持元素顺序收集为Set
+     */
+    private static <T> CompletableFuture<Set<T>> toOrderedSet(Flux<T> flux) {
+        return flux.collect(Collectors.<T, Set<T>>toCollection(LinkedHashSet::new)).toFuture();
+    }
+}
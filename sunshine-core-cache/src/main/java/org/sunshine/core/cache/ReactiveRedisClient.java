@@ -0,0 +1,515 @@
+package org.sunshine.core.cache;
+
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * 响应式RedisClient，方法与{@link RedisClient}一致，基于ReactiveRedisTemplate，不阻塞调用线程
+ * <p>
+ * 与RedisClient使用相同的序列化方式，可混合使用
+ *
+ * @author Teamo
+ * @since 2024/8/19
+ */
+public interface ReactiveRedisClient {
+
+    /**
+     * 指定缓存失效时间
+     *
+     * @param key  键
+     * @param time 时间(秒)
+     * @return 是否成功
+     */
+    Mono<Boolean> expire(String key, long time);
+
+    /**
+     * 根据key 获取过期时间
+     *
+     * @param key 键 不能为null
+     * @return 时间(秒) 返回0代表为永久有效
+     */
+    Mono<Long> getExpire(String key);
+
+    /**
+     * 判断key是否存在
+     *
+     * @param key 键
+     * @return true 存在 false不存在
+     */
+    Mono<Boolean> hasKey(String key);
+
+    /**
+     * 删除缓存
+     *
+     * @param key 可以传一个值 或多个
+     * @return 删除的个数
+     */
+    Mono<Long> del(String... key);
+
+    // ============================String=============================//
+
+    /**
+     * 普通缓存获取
+     *
+     * @param key 键
+     * @return 值，不存在时为空
+     */
+    Mono<Object> get(String key);
+
+    /**
+     * 普通缓存放入
+     *
+     * @param key   键
+     * @param value 值
+     * @return 是否成功
+     */
+    Mono<Boolean> set(String key, Object value);
+
+    /**
+     * 普通缓存放入并设置时间
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return 是否成功
+     */
+    Mono<Boolean> set(String key, Object value, long time);
+
+    /**
+     * 递增
+     *
+     * @param key   键
+     * @param delta 要增加几(大于0)
+     * @return 递增后的值
+     */
+    Mono<Long> incr(String key, long delta);
+
+    /**
+     * 递减
+     *
+     * @param key   键
+     * @param delta 要减少几(大于0)
+     * @return 递减后的值
+     */
+    Mono<Long> decr(String key, long delta);
+
+    /**
+     * 批量获取
+     *
+     * @param keys 键
+     * @return 按键的顺序返回值，不存在的键对应null
+     */
+    Mono<List<Object>> multiGet(Collection<String> keys);
+
+    // ================================Map=================================//
+
+    /**
+     * HashGet
+     *
+     * @param key  键
+     * @param item 项
+     * @return 值，不存在时为空
+     */
+    Mono<Object> hget(String key, String item);
+
+    /**
+     * 获取hashKey对应的所有键值
+     *
+     * @param key 键
+     * @return 对应的多个键值
+     */
+    Mono<Map<String, Object>> hmget(String key);
+
+    /**
+     * HashSet
+     *
+     * @param key 键
+     * @param map 对应多个键值
+     * @return 是否成功
+     */
+    Mono<Boolean> hmset(String key, Map<String, Object> map);
+
+    /**
+     * HashSet 并设置时间，写入与设置时间在一次脚本调用中原子执行
+     *
+     * @param key  键
+     * @param map  对应多个键值
+     * @param time 时间(秒)
+     * @return 是否成功
+     */
+    Mono<Boolean> hmset(String key, Map<String, Object> map, long time);
+
+    /**
+     * 向一张hash表中放入数据,如果不存在将创建
+     *
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @return 是否成功
+     */
+    Mono<Boolean> hset(String key, String item, Object value);
+
+    /**
+     * 向一张hash表中放入数据,如果不存在将创建，写入与设置时间在一次脚本调用中原子执行
+     *
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @param time  时间(秒) 注意:如果已存在的hash表有时间,这里将会替换原有的时间
+     * @return 是否成功
+     */
+    Mono<Boolean> hset(String key, String item, Object value, long time);
+
+    /**
+     * 删除hash表中的值
+     *
+     * @param key  键
+     * @param item 项 可以使多个
+     * @return 删除的个数
+     */
+    Mono<Long> hdel(String key, Object... item);
+
+    /**
+     * 判断hash表中是否有该项的值
+     *
+     * @param key  键
+     * @param item 项
+     * @return true 存在 false不存在
+     */
+    Mono<Boolean> hHasKey(String key, String item);
+
+    /**
+     * hash递增 如果不存在,就会创建一个 并把新增后的值返回
+     *
+     * @param key  键
+     * @param item 项
+     * @param by   要增加几(大于0)
+     * @return 递增后的值
+     */
+    Mono<Double> hincr(String key, String item, double by);
+
+    /**
+     * hash递减
+     *
+     * @param key  键
+     * @param item 项
+     * @param by   要减少几(大于0)
+     * @return 递减后的值
+     */
+    Mono<Double> hdecr(String key, String item, double by);
+
+    // ============================set=============================//
+
+    /**
+     * 根据key获取Set中的所有值
+     *
+     * @param key 键
+     * @return 所有值
+     */
+    Flux<Object> sGet(String key);
+
+    /**
+     * 根据value从一个set中查询,是否存在
+     *
+     * @param key   键
+     * @param value 值
+     * @return true 存在 false不存在
+     */
+    Mono<Boolean> sHasKey(String key, Object value);
+
+    /**
+     * 将数据放入set缓存
+     *
+     * @param key    键
+     * @param values 值 可以是多个
+     * @return 成功个数
+     */
+    Mono<Long> sSet(String key, Object... values);
+
+    /**
+     * 将set数据放入缓存，写入与设置时间在一次脚本调用中原子执行
+     *
+     * @param key    键
+     * @param time   时间(秒)
+     * @param values 值可以是多个
+     * @return 成功个数
+     */
+    Mono<Long> sSetWitExpire(String key, long time, Object... values);
+
+    /**
+     * 获取set缓存的长度
+     *
+     * @param key 键
+     * @return 长度
+     */
+    Mono<Long> sSize(String key);
+
+    /**
+     * 移除值为value的
+     *
+     * @param key    键
+     * @param values 值可以是多个
+     * @return 移除的个数
+     */
+    Mono<Long> sDel(String key, Object... values);
+
+    // ===============================list=================================//
+
+    /**
+     * 获取list缓存的内容
+     *
+     * @param key   键
+     * @param start 开始
+     * @param end   结束 0 到 -1代表所有值
+     * @return 值
+     */
+    Flux<Object> lGet(String key, long start, long end);
+
+    /**
+     * 获取list缓存的长度
+     *
+     * @param key 键
+     * @return 长度
+     */
+    Mono<Long> lSize(String key);
+
+    /**
+     * 通过索引 获取list中的值
+     *
+     * @param key   键
+     * @param index 索引 index>=0时， 0 表头，1 第二个元素，依次类推；index<0时，-1，表尾，-2倒数第二个元素，依次类推
+     * @return 值，不存在时为空
+     */
+    Mono<Object> lIndex(String key, long index);
+
+    /**
+     * 将list放入缓存
+     *
+     * @param key   键
+     * @param value 值
+     * @return list长度
+     */
+    Mono<Long> lSet(String key, Object value);
+
+    /**
+     * 将list放入缓存，写入与设置时间在一次脚本调用中原子执行
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒)
+     * @return list长度
+     */
+    Mono<Long> lSet(String key, Object value, long time);
+
+    /**
+     * 将list放入缓存
+     *
+     * @param key   键
+     * @param value 值
+     * @return list长度
+     */
+    Mono<Long> lSet(String key, List<Object> value);
+
+    /**
+     * 将list放入缓存，写入与设置时间在一次脚本调用中原子执行
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒)
+     * @return list长度
+     */
+    Mono<Long> lSet(String key, List<Object> value, long time);
+
+    /**
+     * 根据索引修改list中的某条数据
+     *
+     * @param key   键
+     * @param index 索引
+     * @param value 值
+     * @return 是否成功
+     */
+    Mono<Boolean> lUpdateIndex(String key, long index, Object value);
+
+    /**
+     * 移除N个值为value
+     *
+     * @param key   键
+     * @param count 移除多少个
+     * @param value 值
+     * @return 移除的个数
+     */
+    Mono<Long> lDel(String key, long count, Object value);
+
+    // ===============================zSet=================================//
+
+    /**
+     * zSet添加或更新
+     *
+     * @param key   键
+     * @param value 值
+     * @param score 分数
+     * @return 是否为新增
+     */
+    Mono<Boolean> zsSet(String key, Object value, double score);
+
+    /**
+     * 使用加法操作分数
+     *
+     * @param key   键
+     * @param value 值
+     * @param score 要加的分数
+     * @return 操作后的分数
+     */
+    Mono<Double> zsIncrScore(String key, Object value, double score);
+
+    /**
+     * 使用减法操作分数
+     *
+     * @param key   键
+     * @param value 值
+     * @param score 要减的分数
+     * @return 操作后的分数
+     */
+    Mono<Double> zsDecrScore(String key, Object value, double score);
+
+    /**
+     * 批量更新或者添加到zSet
+     *
+     * @param key    键
+     * @param tuples 要更新的分数
+     * @return 新添加的个数
+     */
+    Mono<Long> zsBatchSet(String key, Set<ZSetOperations.TypedTuple<Object>> tuples);
+
+    /**
+     * 获取倒序排名
+     *
+     * @param key   键
+     * @param value 值
+     * @return 排名
+     */
+    Mono<Long> zsReverseRank(String key, Object value);
+
+    /**
+     * 获取分数
+     *
+     * @param key   键
+     * @param value 值
+     * @return 分数
+     */
+    Mono<Double> zsScore(String key, Object value);
+
+    /**
+     * 从分数低到高正序取出数据
+     *
+     * @param key   键
+     * @param start 开始索引
+     * @param end   结束索引
+     * @return 值及分数
+     */
+    Flux<ZSetOperations.TypedTuple<Object>> zsRangeWithScores(String key, long start, long end);
+
+    /**
+     * 从分数高到低倒序取出数据
+     *
+     * @param key   键
+     * @param start 开始索引
+     * @param end   结束索引
+     * @return 值及分数
+     */
+    Flux<ZSetOperations.TypedTuple<Object>> zsReverseRangeWithScores(String key, long start, long end);
+
+    // ============================batch=============================//
+
+    /**
+     * 批量放入缓存并设置时间，命令在同一连接上并发发出
+     *
+     * @param map  键值
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return 全部写入后完成
+     */
+    Mono<Void> multiSet(Map<String, Object> map, long time);
+
+    /**
+     * 批量放入缓存并按key设置时间，命令在同一连接上并发发出
+     *
+     * @param map  键值
+     * @param time 根据键获取时间(秒) 小于等于0时设置无限期
+     * @return 全部写入后完成
+     */
+    Mono<Void> multiSet(Map<String, Object> map, ToLongFunction<String> time);
+
+    /**
+     * 批量获取多个hash的所有键值，命令在同一连接上并发发出
+     *
+     * @param keys 键
+     * @return 键 -> 对应的多个键值，不存在的键对应空Map
+     */
+    Mono<Map<String, Map<String, Object>>> multiHmget(Collection<String> keys);
+
+    /**
+     * 批量删除
+     *
+     * @param keys 键
+     * @return 删除的个数
+     */
+    Mono<Long> multiDel(Collection<String> keys);
+
+    /**
+     * 批量指定缓存失效时间，命令在同一连接上并发发出
+     *
+     * @param keys 键
+     * @param time 时间(秒)
+     * @return 全部设置后完成
+     */
+    Mono<Void> multiExpire(Collection<String> keys, long time);
+
+    /**
+     * 批量递增，命令在同一连接上并发发出
+     *
+     * @param deltas 键 -> 要增加几(大于0)
+     * @return 键 -> 递增后的值
+     */
+    Mono<Map<String, Long>> multiIncr(Map<String, Long> deltas);
+
+    /**
+     * 根据通配符迭代key，使用SCAN逐批获取，不会阻塞Redis
+     *
+     * @param pattern 通配符
+     * @param count   每次SCAN返回数量的建议值
+     * @return 键
+     */
+    Flux<String> scan(String pattern, long count);
+
+    /**
+     * 根据通配符批量删除key
+     *
+     * @param pattern 通配符
+     * @return 删除后完成
+     * @see #deleteByPattern(String)
+     */
+    Mono<Void> batchDel(String pattern);
+
+    /**
+     * 根据通配符删除key，边SCAN边使用UNLINK分批删除，内存占用与key的总数无关
+     *
+     * @param pattern 通配符
+     * @return 删除的个数
+     */
+    Mono<Long> deleteByPattern(String pattern);
+
+    /**
+     * 获取响应式Redis模板对象
+     *
+     * @return ReactiveRedisTemplate
+     */
+    ReactiveRedisTemplate<String, Object> reactiveRedisTemplate();
+}
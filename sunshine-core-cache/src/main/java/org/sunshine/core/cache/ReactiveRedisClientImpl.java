@@ -0,0 +1,422 @@
+package org.sunshine.core.cache;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * @author Teamo
+ * @since 2024/8/19
+ */
+public class ReactiveRedisClientImpl implements ReactiveRedisClient {
+
+    /**
+     * 脚本返回整数时直接为Long，仅在返回字符串时使用
+     */
+    private static final RedisElementReader<Long> LONG_READER = buffer -> Long.valueOf(StandardCharsets.UTF_8.decode(buffer).toString());
+
+    /**
+     * 批量操作时同时发出的最大命令数，由Lettuce在同一连接上连续写出，效果与管道相同
+     */
+    private static final int MAX_CONCURRENCY = 1000;
+
+    /**
+     * SCAN每次返回数量的建议值，同时作为按通配符删除时每批UNLINK的key数量
+     */
+    private static final int SCAN_COUNT = 1000;
+
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    private final ReactiveHashOperations<String, String, Object> hashOperations;
+
+    public ReactiveRedisClientImpl(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.hashOperations = reactiveRedisTemplate.opsForHash();
+    }
+
+    @Override
+    public Mono<Boolean> expire(String key, long time) {
+        return reactiveRedisTemplate.expire(key, Duration.ofSeconds(time));
+    }
+
+    @Override
+    public Mono<Long> getExpire(String key) {
+        return reactiveRedisTemplate.getExpire(key).map(Duration::getSeconds);
+    }
+
+    @Override
+    public Mono<Boolean> hasKey(String key) {
+        return reactiveRedisTemplate.hasKey(key);
+    }
+
+    @Override
+    public Mono<Long> del(String... key) {
+        if (key == null || key.length == 0) {
+            return Mono.just(0L);
+        }
+        return reactiveRedisTemplate.delete(key);
+    }
+
+    @Override
+    public Mono<Object> get(String key) {
+        return reactiveRedisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public Mono<Boolean> set(String key, Object value) {
+        return reactiveRedisTemplate.opsForValue().set(key, value);
+    }
+
+    @Override
+    public Mono<Boolean> set(String key, Object value, long time) {
+        if (time > 0) {
+            return reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofSeconds(time));
+        }
+        return set(key, value);
+    }
+
+    @Override
+    public Mono<Long> incr(String key, long delta) {
+        if (delta < 0) {
+            return Mono.error(new RuntimeException("递增因子必须大于0"));
+        }
+        return reactiveRedisTemplate.opsForValue().increment(key, delta);
+    }
+
+    @Override
+    public Mono<Long> decr(String key, long delta) {
+        if (delta < 0) {
+            return Mono.error(new RuntimeException("递减因子必须大于0"));
+        }
+        return reactiveRedisTemplate.opsForValue().decrement(key, delta);
+    }
+
+    @Override
+    public Mono<List<Object>> multiGet(Collection<String> keys) {
+        return reactiveRedisTemplate.opsForValue().multiGet(keys);
+    }
+
+    @Override
+    public Mono<Object> hget(String key, String item) {
+        return hashOperations.get(key, item);
+    }
+
+    @Override
+    public Mono<Map<String, Object>> hmget(String key) {
+        return hashOperations.entries(key).collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new);
+    }
+
+    @Override
+    public Mono<Boolean> hmset(String key, Map<String, Object> map) {
+        return hashOperations.putAll(key, map);
+    }
+
+    @Override
+    public Mono<Boolean> hmset(String key, Map<String, Object> map, long time) {
+        if (time <= 0 || map.isEmpty()) {
+            return hmset(key, map);
+        }
+        List<byte[]> args = new ArrayList<>(map.size() * 2 + 1);
+        args.add(serializeTime(time));
+        map.forEach((item, value) -> {
+            args.add(serializeHashKey(item));
+            args.add(serializeHashValue(value));
+        });
+        return executeScript(RedisScripts.HSET_EXPIRE, key, args).map(result -> true);
+    }
+
+    @Override
+    public Mono<Boolean> hset(String key, String item, Object value) {
+        return hashOperations.put(key, item, value);
+    }
+
+    @Override
+    public Mono<Boolean> hset(String key, String item, Object value, long time) {
+        if (time <= 0) {
+            return hset(key, item, value);
+        }
+        return executeScript(RedisScripts.HSET_EXPIRE, key,
+                Arrays.asList(serializeTime(time), serializeHashKey(item), serializeHashValue(value))).map(result -> true);
+    }
+
+    @Override
+    public Mono<Long> hdel(String key, Object... item) {
+        return hashOperations.remove(key, item);
+    }
+
+    @Override
+    public Mono<Boolean> hHasKey(String key, String item) {
+        return hashOperations.hasKey(key, item);
+    }
+
+    @Override
+    public Mono<Double> hincr(String key, String item, double by) {
+        if (by < 0) {
+            return Mono.error(new RuntimeException("递增因子必须大于0"));
+        }
+        return hashOperations.increment(key, item, by);
+    }
+
+    @Override
+    public Mono<Double> hdecr(String key, String item, double by) {
+        if (by < 0) {
+            return Mono.error(new RuntimeException("递减因子必须大于0"));
+        }
+        return hashOperations.increment(key, item, -by);
+    }
+
+    @Override
+    public Flux<Object> sGet(String key) {
+        return reactiveRedisTemplate.opsForSet().members(key);
+    }
+
+    @Override
+    public Mono<Boolean> sHasKey(String key, Object value) {
+        return reactiveRedisTemplate.opsForSet().isMember(key, value);
+    }
+
+    @Override
+    public Mono<Long> sSet(String key, Object... values) {
+        return reactiveRedisTemplate.opsForSet().add(key, values);
+    }
+
+    @Override
+    public Mono<Long> sSetWitExpire(String key, long time, Object... values) {
+        if (time <= 0 || values.length == 0) {
+            return sSet(key, values);
+        }
+        return executeScript(RedisScripts.SADD_EXPIRE, key, serializeValues(time, Arrays.asList(values)));
+    }
+
+    @Override
+    public Mono<Long> sSize(String key) {
+        return reactiveRedisTemplate.opsForSet().size(key);
+    }
+
+    @Override
+    public Mono<Long> sDel(String key, Object... values) {
+        return reactiveRedisTemplate.opsForSet().remove(key, values);
+    }
+
+    @Override
+    public Flux<Object> lGet(String key, long start, long end) {
+        return reactiveRedisTemplate.opsForList().range(key, start, end);
+    }
+
+    @Override
+    public Mono<Long> lSize(String key) {
+        return reactiveRedisTemplate.opsForList().size(key);
+    }
+
+    @Override
+    public Mono<Object> lIndex(String key, long index) {
+        return reactiveRedisTemplate.opsForList().index(key, index);
+    }
+
+    @Override
+    public Mono<Long> lSet(String key, Object value) {
+        return reactiveRedisTemplate.opsForList().rightPush(key, value);
+    }
+
+    @Override
+    public Mono<Long> lSet(String key, Object value, long time) {
+        if (time <= 0) {
+            return lSet(key, value);
+        }
+        return executeScript(RedisScripts.RPUSH_EXPIRE, key, serializeValues(time, Collections.singletonList(value)));
+    }
+
+    @Override
+    public Mono<Long> lSet(String key, List<Object> value) {
+        return reactiveRedisTemplate.opsForList().rightPushAll(key, value);
+    }
+
+    @Override
+    public Mono<Long> lSet(String key, List<Object> value, long time) {
+        if (time <= 0 || value.isEmpty()) {
+            return lSet(key, value);
+        }
+        return executeScript(RedisScripts.RPUSH_EXPIRE, key, serializeValues(time, value));
+    }
+
+    @Override
+    public Mono<Boolean> lUpdateIndex(String key, long index, Object value) {
+        return reactiveRedisTemplate.opsForList().set(key, index, value);
+    }
+
+    @Override
+    public Mono<Long> lDel(String key, long count, Object value) {
+        return reactiveRedisTemplate.opsForList().remove(key, count, value);
+    }
+
+    @Override
+    public Mono<Boolean> zsSet(String key, Object value, double score) {
+        return reactiveRedisTemplate.opsForZSet().add(key, value, score);
+    }
+
+    @Override
+    public Mono<Double> zsIncrScore(String key, Object value, double score) {
+        if (score < 0) {
+            return Mono.error(new RuntimeException("增加分数必须大于0"));
+        }
+        return reactiveRedisTemplate.opsForZSet().incrementScore(key, value, score);
+    }
+
+    @Override
+    public Mono<Double> zsDecrScore(String key, Object value, double score) {
+        if (score < 0) {
+            return Mono.error(new RuntimeException("减少分数必须大于0"));
+        }
+        return reactiveRedisTemplate.opsForZSet().incrementScore(key, value, -score);
+    }
+
+    @Override
+    public Mono<Long> zsBatchSet(String key, Set<ZSetOperations.TypedTuple<Object>> tuples) {
+        return reactiveRedisTemplate.opsForZSet().addAll(key, tuples);
+    }
+
+    @Override
+    public Mono<Long> zsReverseRank(String key, Object value) {
+        return reactiveRedisTemplate.opsForZSet().reverseRank(key, value);
+    }
+
+    @Override
+    public Mono<Double> zsScore(String key, Object value) {
+        return reactiveRedisTemplate.opsForZSet().score(key, value);
+    }
+
+    @Override
+    public Flux<ZSetOperations.TypedTuple<Object>> zsRangeWithScores(String key, long start, long end) {
+        return reactiveRedisTemplate.opsForZSet().rangeWithScores(key, Range.closed(start, end));
+    }
+
+    @Override
+    public Flux<ZSetOperations.TypedTuple<Object>> zsReverseRangeWithScores(String key, long start, long end) {
+        return reactiveRedisTemplate.opsForZSet().reverseRangeWithScores(key, Range.closed(start, end));
+    }
+
+    @Override
+    public Mono<Void> multiSet(Map<String, Object> map, long time) {
+        return multiSet(map, key -> time);
+    }
+
+    @Override
+    public Mono<Void> multiSet(Map<String, Object> map, ToLongFunction<String> time) {
+        return Flux.fromIterable(map.entrySet())
+                .flatMap(entry -> set(entry.getKey(), entry.getValue(), time.applyAsLong(entry.getKey())), MAX_CONCURRENCY)
+                .then();
+    }
+
+    @Override
+    public Mono<Map<String, Map<String, Object>>> multiHmget(Collection<String> keys) {
+        return Flux.fromIterable(keys)
+                .flatMapSequential(key -> hmget(key).map(entries -> Tuples.of(key, entries)), MAX_CONCURRENCY)
+                .collectMap(Tuple2::getT1, Tuple2::getT2, LinkedHashMap::new);
+    }
+
+    @Override
+    public Mono<Long> multiDel(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return reactiveRedisTemplate.delete(Flux.fromIterable(keys));
+    }
+
+    @Override
+    public Mono<Void> multiExpire(Collection<String> keys, long time) {
+        return Flux.fromIterable(keys)
+                .flatMap(key -> expire(key, time), MAX_CONCURRENCY)
+                .then();
+    }
+
+    @Override
+    public Mono<Map<String, Long>> multiIncr(Map<String, Long> deltas) {
+        if (deltas.values().stream().anyMatch(delta -> delta < 0)) {
+            return Mono.error(new RuntimeException("递增因子必须大于0"));
+        }
+        return Flux.fromIterable(deltas.entrySet())
+                .flatMapSequential(entry -> reactiveRedisTemplate.opsForValue().increment(entry.getKey(), entry.getValue())
+                        .map(value -> Tuples.of(entry.getKey(), value)), MAX_CONCURRENCY)
+                .collectMap(Tuple2::getT1, Tuple2::getT2, LinkedHashMap::new);
+    }
+
+    @Override
+    public Flux<String> scan(String pattern, long count) {
+        if (pattern == null || "".equals(pattern)) {
+            return Flux.empty();
+        }
+        ScanOptions scanOptions = ScanOptions.scanOptions()
+                .match(pattern)
+                .count(count)
+                .build();
+        return reactiveRedisTemplate.scan(scanOptions);
+    }
+
+    @Override
+    public Mono<Void> batchDel(String pattern) {
+        return deleteByPattern(pattern).then();
+    }
+
+    @Override
+    public Mono<Long> deleteByPattern(String pattern) {
+        return scan(pattern, SCAN_COUNT)
+                .buffer(SCAN_COUNT)
+                .concatMap(keys -> reactiveRedisTemplate.unlink(Flux.fromIterable(keys)))
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate() {
+        return this.reactiveRedisTemplate;
+    }
+
+    private Mono<Long> executeScript(RedisScript<Long> script, String key, List<byte[]> args) {
+        return reactiveRedisTemplate.execute(script, Collections.singletonList(key), args,
+                RedisElementWriter.from(RedisSerializer.byteArray()), LONG_READER)
+                .next();
+    }
+
+    private List<byte[]> serializeValues(long time, Collection<?> values) {
+        List<byte[]> args = new ArrayList<>(values.size() + 1);
+        args.add(serializeTime(time));
+        values.forEach(value -> args.add(serializeValue(value)));
+        return args;
+    }
+
+    private byte[] serializeTime(long time) {
+        return String.valueOf(time).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] serializeValue(Object value) {
+        return ByteUtils.getBytes(serializationContext().getValueSerializationPair().write(value));
+    }
+
+    private byte[] serializeHashKey(Object item) {
+        return ByteUtils.getBytes(serializationContext().<Object>getHashKeySerializationPair().write(item));
+    }
+
+    private byte[] serializeHashValue(Object value) {
+        return ByteUtils.getBytes(serializationContext().<Object>getHashValueSerializationPair().write(value));
+    }
+
+    private RedisSerializationContext<String, Object> serializationContext() {
+        return reactiveRedisTemplate.getSerializationContext();
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.data.redis.core.ZSetOperations;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 /**
  * @author Teamo
@@ -135,7 +137,7 @@ public interface RedisClient {
     void hmset(String key, Map<String, Object> map);
 
     /**
-     * HashSet 并设置时间
+     * HashSet 并设置时间，写入与设置时间在一次脚本调用中原子执行
      *
      * @param key  键
      * @param map  对应多个键值
@@ -153,7 +155,7 @@ public interface RedisClient {
     void hset(String key, String item, Object value);
 
     /**
-     * 向一张hash表中放入数据,如果不存在将创建
+     * 向一张hash表中放入数据,如果不存在将创建，写入与设置时间在一次脚本调用中原子执行
      *
      * @param key   键
      * @param item  项
@@ -229,7 +231,7 @@ public interface RedisClient {
     Long sSet(String key, Object... values);
 
     /**
-     * 将set数据放入缓存
+     * 将set数据放入缓存，写入与设置时间在一次脚本调用中原子执行
      *
      * @param key    键
      * @param time   时间(秒)
@@ -294,7 +296,7 @@ public interface RedisClient {
     Long lSet(String key, Object value);
 
     /**
-     * 将list放入缓存
+     * 将list放入缓存，写入与设置时间在一次脚本调用中原子执行
      *
      * @param key   键
      * @param value 值
@@ -313,7 +315,7 @@ public interface RedisClient {
     Long lSet(String key, List<Object> value);
 
     /**
-     * 将list放入缓存
+     * 将list放入缓存，写入与设置时间在一次脚本调用中原子执行
      *
      * @param key   键
      * @param value 值
@@ -418,21 +420,91 @@ public interface RedisClient {
      */
     Set<ZSetOperations.TypedTuple<Object>> zsReverseRangeWithScores(String key, long start, long end);
 
+    // ============================batch=============================//
+
+    /**
+     * 批量放入缓存并设置时间，使用管道执行
+     *
+     * @param map  键值
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     */
+    void multiSet(Map<String, Object> map, long time);
+
+    /**
+     * 批量放入缓存并按key设置时间，使用管道执行
+     *
+     * @param map  键值
+     * @param time 根据键获取时间(秒) 小于等于0时设置无限期
+     */
+    void multiSet(Map<String, Object> map, ToLongFunction<String> time);
+
+    /**
+     * 批量获取多个hash的所有键值，使用管道执行
+     *
+     * @param keys 键
+     * @return 键 -> 对应的多个键值，不存在的键对应空Map
+     */
+    Map<String, Map<Object, Object>> multiHmget(Collection<String> keys);
+
+    /**
+     * 批量删除，使用管道执行
+     *
+     * @param keys 键
+     * @return 删除的个数
+     */
+    Long multiDel(Collection<String> keys);
+
+    /**
+     * 批量指定缓存失效时间，使用管道执行
+     *
+     * @param keys 键
+     * @param time 时间(秒)
+     */
+    void multiExpire(Collection<String> keys, long time);
+
+    /**
+     * 批量递增，使用管道执行
+     *
+     * @param deltas 键 -> 要增加几(大于0)
+     * @return 键 -> 递增后的值
+     */
+    Map<String, Long> multiIncr(Map<String, Long> deltas);
+
     /**
-     * 根据通配符批量获取key
+     * 根据通配符批量获取key，会将所有匹配的key加载到内存，key较多时使用{@link #scan(String, long)}
      *
      * @param pattern 通配符
      * @return 所有的键
      */
     List<String> scan(String pattern);
 
+    /**
+     * 根据通配符迭代key，使用SCAN逐批获取，不会阻塞Redis
+     * <p>
+     * 返回的流持有游标，使用完毕后需关闭，建议使用try-with-resources
+     *
+     * @param pattern 通配符
+     * @param count   每次SCAN返回数量的建议值
+     * @return 键的流
+     */
+    Stream<String> scan(String pattern, long count);
+
     /**
      * 根据通配符批量删除key
      *
      * @param pattern 通配符
+     * @see #deleteByPattern(String)
      */
     void batchDel(String pattern);
 
+    /**
+     * 根据通配符删除key，边SCAN边使用UNLINK分批删除，内存占用与key的总数无关
+     *
+     * @param pattern 通配符
+     * @return 删除的个数
+     */
+    Long deleteByPattern(String pattern);
+
     /**
      * 获取Redis模板对象。
      * 这个方法用于返回一个配置好的Redis模板，可以在应用程序中直接使用它来操作Redis数据库。
@@ -1,12 +1,18 @@
 package org.sunshine.core.cache;
 
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ScanOptions;
-import org.springframework.data.redis.core.ZSetOperations;
+import com.google.common.collect.Iterables;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author Teamo
@@ -14,6 +20,16 @@ import java.util.concurrent.TimeUnit;
  */
 public class RedisClientImpl implements RedisClient {
 
+    /**
+     * 每次管道提交的最大命令数，避免一次性缓冲过多命令及响应
+     */
+    private static final int PIPELINE_BATCH_SIZE = 1000;
+
+    /**
+     * SCAN每次返回数量的建议值，同时作为按通配符删除时每批UNLINK的key数量
+     */
+    private static final int SCAN_COUNT = 1000;
+
     private final RedisTemplate<String, Object> redisTemplate;
 
     public RedisClientImpl(RedisTemplate<String, Object> redisTemplate) {
@@ -112,10 +128,17 @@ public class RedisClientImpl implements RedisClient {
 
     @Override
     public void hmset(String key, Map<String, Object> map, long time) {
-        redisTemplate.opsForHash().putAll(key, map);
-        if (time > 0) {
-            expire(key, time);
+        if (time <= 0 || map.isEmpty()) {
+            hmset(key, map);
+            return;
         }
+        List<byte[]> args = new ArrayList<>(map.size() * 2 + 1);
+        args.add(serializeTime(time));
+        map.forEach((item, value) -> {
+            args.add(serializeHashKey(item));
+            args.add(serializeHashValue(value));
+        });
+        executeScript(RedisScripts.HSET_EXPIRE, key, args);
     }
 
     @Override
@@ -125,10 +148,11 @@ public class RedisClientImpl implements RedisClient {
 
     @Override
     public void hset(String key, String item, Object value, long time) {
-        redisTemplate.opsForHash().put(key, item, value);
-        if (time > 0) {
-            expire(key, time);
+        if (time <= 0) {
+            hset(key, item, value);
+            return;
         }
+        executeScript(RedisScripts.HSET_EXPIRE, key, Arrays.asList(serializeTime(time), serializeHashKey(item), serializeHashValue(value)));
     }
 
     @Override
@@ -174,11 +198,10 @@ public class RedisClientImpl implements RedisClient {
 
     @Override
     public Long sSetWitExpire(String key, long time, Object... values) {
-        Long count = redisTemplate.opsForSet().add(key, values);
-        if (time > 0) {
-            expire(key, time);
+        if (time <= 0 || values.length == 0) {
+            return sSet(key, values);
         }
-        return count;
+        return executeScript(RedisScripts.SADD_EXPIRE, key, serializeValues(time, Arrays.asList(values)));
     }
 
     @Override
@@ -213,11 +236,10 @@ public class RedisClientImpl implements RedisClient {
 
     @Override
     public Long lSet(String key, Object value, long time) {
-        Long count = redisTemplate.opsForList().rightPush(key, value);
-        if (time > 0) {
-            expire(key, time);
+        if (time <= 0) {
+            return lSet(key, value);
         }
-        return count;
+        return executeScript(RedisScripts.RPUSH_EXPIRE, key, serializeValues(time, Collections.singletonList(value)));
     }
 
     @Override
@@ -227,11 +249,10 @@ public class RedisClientImpl implements RedisClient {
 
     @Override
     public Long lSet(String key, List<Object> value, long time) {
-        Long count = redisTemplate.opsForList().rightPushAll(key, value);
-        if (time > 0) {
-            expire(key, time);
+        if (time <= 0 || value.isEmpty()) {
+            return lSet(key, value);
         }
-        return count;
+        return executeScript(RedisScripts.RPUSH_EXPIRE, key, serializeValues(time, value));
     }
 
     @Override
@@ -290,31 +311,179 @@ public class RedisClientImpl implements RedisClient {
         return redisTemplate.opsForZSet().reverseRangeWithScores(key, start, end);
     }
 
+    @Override
+    public void multiSet(Map<String, Object> map, long time) {
+        multiSet(map, key -> time);
+    }
+
+    @Override
+    public void multiSet(Map<String, Object> map, ToLongFunction<String> time) {
+        executePipelined(map.entrySet(), (operations, entry) -> {
+            long expireTime = time.applyAsLong(entry.getKey());
+            if (expireTime > 0) {
+                operations.opsForValue().set(entry.getKey(), entry.getValue(), expireTime, TimeUnit.SECONDS);
+            } else {
+                operations.opsForValue().set(entry.getKey(), entry.getValue());
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Map<Object, Object>> multiHmget(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        List<Object> results = executePipelined(keyList, (operations, key) -> operations.opsForHash().entries(key));
+        Map<String, Map<Object, Object>> entries = new LinkedHashMap<>(keyList.size() * 4 / 3 + 1);
+        for (int i = 0; i < keyList.size(); i++) {
+            Object result = results.get(i);
+            entries.put(keyList.get(i), result instanceof Map ? (Map<Object, Object>) result : Collections.emptyMap());
+        }
+        return entries;
+    }
+
+    @Override
+    public Long multiDel(Collection<String> keys) {
+        List<Object> results = executePipelined(keys, RedisOperations::delete);
+        // 管道内返回DEL的原始结果(Long)，不会转换为Boolean
+        return results.stream().mapToLong(result -> result instanceof Number ? ((Number) result).longValue() : 0L).sum();
+    }
+
+    @Override
+    public void multiExpire(Collection<String> keys, long time) {
+        executePipelined(keys, (operations, key) -> operations.expire(key, time, TimeUnit.SECONDS));
+    }
+
+    @Override
+    public Map<String, Long> multiIncr(Map<String, Long> deltas) {
+        deltas.values().forEach(delta -> {
+            if (delta < 0) {
+                throw new RuntimeException("递增因子必须大于0");
+            }
+        });
+        List<String> keyList = new ArrayList<>(deltas.keySet());
+        List<Object> results = executePipelined(keyList, (operations, key) -> operations.opsForValue().increment(key, deltas.get(key)));
+        Map<String, Long> values = new LinkedHashMap<>(keyList.size() * 4 / 3 + 1);
+        for (int i = 0; i < keyList.size(); i++) {
+            values.put(keyList.get(i), (Long) results.get(i));
+        }
+        return values;
+    }
+
     @Override
     public List<String> scan(String pattern) {
+        try (Stream<String> keys = scan(pattern, SCAN_COUNT)) {
+            return keys.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public Stream<String> scan(String pattern, long count) {
         if (pattern == null || "".equals(pattern)) {
-            return Collections.emptyList();
+            return Stream.empty();
         }
-        List<String> keys = new ArrayList<>();
         ScanOptions scanOptions = ScanOptions.scanOptions()
                 .match(pattern)
+                .count(count)
                 .build();
-        try (Cursor<String> cursor = redisTemplate.scan(scanOptions)) {
-            while (cursor.hasNext()) {
-                keys.add(cursor.next());
-            }
-        }
-        return keys;
+        // 关闭流时关闭游标
+        return redisTemplate.scan(scanOptions).stream();
     }
 
     @Override
     public void batchDel(String pattern) {
-        List<String> keys = scan(pattern);
-        redisTemplate.delete(keys);
+        deleteByPattern(pattern);
+    }
+
+    @Override
+    public Long deleteByPattern(String pattern) {
+        long count = 0L;
+        List<String> batch = new ArrayList<>(SCAN_COUNT);
+        try (Stream<String> keys = scan(pattern, SCAN_COUNT)) {
+            Iterator<String> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= SCAN_COUNT) {
+                    count += unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            count += unlink(batch);
+        }
+        return count;
     }
 
     @Override
     public RedisTemplate<String, Object> redisTemplate() {
         return this.redisTemplate;
     }
+
+    /**
+     * 分批使用管道执行命令
+     *
+     * @param items  数据
+     * @param action 对每条数据执行的命令
+     * @return 按顺序返回每条命令的结果
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<Object> executePipelined(Collection<T> items, BiConsumer<RedisOperations<String, Object>, T> action) {
+        if (items == null || items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = new ArrayList<>(items.size());
+        for (List<T> batch : Iterables.partition(items, PIPELINE_BATCH_SIZE)) {
+            results.addAll(redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    batch.forEach(item -> action.accept((RedisOperations<String, Object>) operations, item));
+                    return null;
+                }
+            }));
+        }
+        return results;
+    }
+
+    /**
+     * 使用UNLINK删除，由Redis在后台线程回收内存
+     *
+     * @param keys 键
+     * @return 删除的个数
+     */
+    private long unlink(List<String> keys) {
+        Long count = redisTemplate.unlink(keys);
+        return count == null ? 0L : count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long executeScript(RedisScript<Long> script, String key, List<byte[]> args) {
+        return redisTemplate.execute(script, RedisSerializer.byteArray(), (RedisSerializer<Long>) redisTemplate.getValueSerializer(),
+                Collections.singletonList(key), args.toArray());
+    }
+
+    private List<byte[]> serializeValues(long time, Collection<?> values) {
+        List<byte[]> args = new ArrayList<>(values.size() + 1);
+        args.add(serializeTime(time));
+        values.forEach(value -> args.add(serializeValue(value)));
+        return args;
+    }
+
+    private byte[] serializeTime(long time) {
+        return String.valueOf(time).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeHashKey(Object item) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashKeySerializer()).serialize(item);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serializeHashValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getHashValueSerializer()).serialize(value);
+    }
 }
@@ -1,12 +1,8 @@
 package org.sunshine.core.cache;
 
 import com.google.common.collect.ImmutableMap;
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.common.TemplateParserContext;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.Map;
 
 /**
  * @author Teamo
@@ -34,14 +30,27 @@ public interface RedisKey {
      * @return 完全的key
      */
     default String buildKey(ImmutableMap<String, String> params) {
-        ExpressionParser parser = new SpelExpressionParser();
-        Expression expression = parser.parseExpression(getTemplate(), new TemplateParserContext());
-
-        EvaluationContext context = new StandardEvaluationContext();
+        return buildKey((Map<String, String>) params);
+    }
 
-        params.forEach(context::setVariable);
+    /**
+     * 线程安全构建key，模板只解析一次
+     *
+     * @param params 参数
+     * @return 完全的key
+     */
+    default String buildKey(Map<String, ?> params) {
+        return RedisKeyTemplate.of(getTemplate()).build(params);
+    }
 
-        return expression.getValue(context, String.class);
+    /**
+     * 线程安全构建key，模板只解析一次
+     *
+     * @param keyValues 名称、值交替排列，如：buildKey("id", 1, "type", "order")
+     * @return 完全的key
+     */
+    default String buildKey(Object... keyValues) {
+        return RedisKeyTemplate.of(getTemplate()).build(keyValues);
     }
 
 }
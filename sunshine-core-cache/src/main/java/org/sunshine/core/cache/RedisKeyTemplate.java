@@ -0,0 +1,144 @@
+package org.sunshine.core.cache;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 解析后的{@link RedisKey}模板，每个模板只解析一次。
+ * 只包含变量占位符(#{#name}或#{name})的模板直接拼接，不经过SpEL；其余模板使用SpEL编译模式求值
+ *
+ * @author Teamo
+ * @since 2024/8/29
+ */
+public final class RedisKeyTemplate {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, RedisKeyTemplate.class.getClassLoader()));
+
+    private static final TemplateParserContext PARSER_CONTEXT = new TemplateParserContext();
+
+    private static final Pattern VARIABLE = Pattern.compile("#?[A-Za-z_$][A-Za-z0-9_$]*");
+
+    /**
+     * 模板 -> 解析结果
+     */
+    private static final Map<String, RedisKeyTemplate> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 字面量与变量名交替排列，偶数位为字面量，奇数位为变量名，SpEL模板为null
+     */
+    private final String[] segments;
+
+    private final Expression expression;
+
+    private final int literalLength;
+
+    private RedisKeyTemplate(String template) {
+        this.segments = split(template);
+        this.expression = segments == null ? PARSER.parseExpression(template, PARSER_CONTEXT) : null;
+        int length = 0;
+        if (segments != null) {
+            for (int i = 0; i < segments.length; i += 2) {
+                length += segments[i].length();
+            }
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * 获取解析后的模板
+     *
+     * @param template 模板
+     * @return RedisKeyTemplate
+     */
+    public static RedisKeyTemplate of(String template) {
+        Assert.notNull(template, "template must not be null");
+        RedisKeyTemplate compiled = CACHE.get(template);
+        return compiled != null ? compiled : CACHE.computeIfAbsent(template, RedisKeyTemplate::new);
+    }
+
+    /**
+     * 构建key
+     *
+     * @param params 参数，值为null或缺少的变量输出为空
+     * @return 完全的key
+     */
+    public String build(Map<String, ?> params) {
+        if (segments == null) {
+            EvaluationContext context = new StandardEvaluationContext();
+            params.forEach(context::setVariable);
+            return expression.getValue(context, String.class);
+        }
+        StringBuilder builder = new StringBuilder(literalLength + 16 * (segments.length >> 1));
+        for (int i = 0; i < segments.length; i++) {
+            if ((i & 1) == 0) {
+                builder.append(segments[i]);
+            } else {
+                Object value = params.get(segments[i]);
+                if (value != null) {
+                    builder.append(value);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 按名称、值交替的参数构建key
+     *
+     * @param keyValues 名称、值交替排列
+     * @return 完全的key
+     */
+    public String build(Object... keyValues) {
+        Assert.isTrue((keyValues.length & 1) == 0, "keyValues must be name-value pairs");
+        Map<String, Object> params = new HashMap<>(keyValues.length);
+        for (int i = 0; i < keyValues.length; i += 2) {
+            if (keyValues[i + 1] != null) {
+                params.put(String.valueOf(keyValues[i]), keyValues[i + 1]);
+            }
+        }
+        return build(params);
+    }
+
+    /**
+     * 拆分只包含变量占位符的模板
+     *
+     * @param template 模板
+     * @return 字面量与变量名交替排列，包含其他表达式时返回null
+     */
+    private static String[] split(String template) {
+        String prefix = PARSER_CONTEXT.getExpressionPrefix();
+        String suffix = PARSER_CONTEXT.getExpressionSuffix();
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = template.indexOf(prefix, start)) >= 0) {
+            int close = template.indexOf(suffix, open + prefix.length());
+            if (close < 0) {
+                return null;
+            }
+            String variable = template.substring(open + prefix.length(), close).trim();
+            if (!VARIABLE.matcher(variable).matches() || "#root".equals(variable) || "#this".equals(variable)) {
+                return null;
+            }
+            segments.add(template.substring(start, open));
+            segments.add(variable.charAt(0) == '#' ? variable.substring(1) : variable);
+            start = close + suffix.length();
+        }
+        segments.add(template.substring(start));
+        return segments.toArray(new String[0]);
+    }
+}
@@ -4,6 +4,9 @@ import org.springframework.data.redis.connection.stream.RecordId;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.sunshine.core.cache.stream.AbstractStreamMessage;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author Teamo
  * @since 2024/7/8
@@ -35,4 +38,22 @@ public interface RedisMQTemplate {
      * @return {@link RecordId}
      */
     <T extends AbstractStreamMessage> RecordId send(RecordId recordId, T message);
+
+    /**
+     * 批量发送消息，使用pipeline写入，消息可属于不同的stream。
+     *
+     * @param messages 消息{@link AbstractStreamMessage}
+     * @param <T>      消息类型
+     * @return {@link RecordId}，与messages顺序一致
+     */
+    <T extends AbstractStreamMessage> List<RecordId> sendBatch(Collection<T> messages);
+
+    /**
+     * 异步发送消息，消息写入本地缓冲队列，按数量或时间批量发送，不保证送达。
+     *
+     * @param message 消息{@link AbstractStreamMessage}
+     * @param <T>     消息类型
+     * @return 缓冲队列已满时返回false，消息被丢弃
+     */
+    <T extends AbstractStreamMessage> boolean sendAsync(T message);
 }
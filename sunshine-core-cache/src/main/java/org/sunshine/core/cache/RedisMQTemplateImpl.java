@@ -1,21 +1,65 @@
 package org.sunshine.core.cache;
 
 import com.alibaba.fastjson2.JSON;
+import com.google.common.collect.Iterables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.connection.stream.Record;
 import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.sunshine.core.cache.properties.RedisStreamProperties;
 import org.sunshine.core.cache.stream.AbstractStreamMessage;
+import org.sunshine.core.cache.stream.StreamPartitions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Teamo
  * @since 2024/7/8
  */
-public class RedisMQTemplateImpl implements RedisMQTemplate {
+public class RedisMQTemplateImpl implements RedisMQTemplate, DisposableBean {
+
+    private final static Logger log = LoggerFactory.getLogger(RedisMQTemplateImpl.class);
+
+    /**
+     * 每个pipeline最多包含的命令数，避免单次往返占用过多内存
+     */
+    private static final int PIPELINE_BATCH_SIZE = 1000;
 
     private final RedisTemplate<String, Object> redisTemplate;
 
+    private final RedisStreamProperties properties;
+
+    /**
+     * 异步发送的缓冲队列
+     */
+    private final BlockingQueue<AbstractStreamMessage> buffer;
+
+    private volatile ThreadPoolTaskExecutor executor;
+
+    private volatile boolean closed;
+
     public RedisMQTemplateImpl(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, new RedisStreamProperties());
+    }
+
+    public RedisMQTemplateImpl(RedisTemplate<String, Object> redisTemplate, RedisStreamProperties properties) {
         this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.buffer = new ArrayBlockingQueue<>(properties.getAsync().getCapacity());
     }
 
     @Override
@@ -25,18 +69,161 @@ public class RedisMQTemplateImpl implements RedisMQTemplate {
 
     @Override
     public <T extends AbstractStreamMessage> RecordId send(T message) {
-        return redisTemplate.opsForStream().add(
-                Record.of(JSON.toJSONString(message)).withStreamKey(message.getStreamKey())
-        );
+        return send(null, message);
     }
 
     @Override
     public <T extends AbstractStreamMessage> RecordId send(RecordId recordId, T message) {
-        return redisTemplate.opsForStream().add(
-                Record.of(JSON.toJSONString(message))
-                        .withId(recordId)
-                        .withStreamKey(message.getStreamKey())
-        );
+        ByteRecord record = serialize(recordId, message);
+        RedisStreamCommands.XAddOptions options = getAddOptions(message.getStreamKey());
+        return redisTemplate.execute((RedisCallback<RecordId>) connection -> connection.streamCommands().xAdd(record, options));
     }
 
+    @Override
+    public <T extends AbstractStreamMessage> List<RecordId> sendBatch(Collection<T> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<RecordId> recordIds = new ArrayList<>(messages.size());
+        for (List<T> batch : Iterables.partition(messages, PIPELINE_BATCH_SIZE)) {
+            // 先在调用线程完成序列化，pipeline内只写入命令
+            List<ByteRecord> records = new ArrayList<>(batch.size());
+            List<RedisStreamCommands.XAddOptions> options = new ArrayList<>(batch.size());
+            for (T message : batch) {
+                records.add(serialize(null, message));
+                options.add(getAddOptions(message.getStreamKey()));
+            }
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < records.size(); i++) {
+                    connection.streamCommands().xAdd(records.get(i), options.get(i));
+                }
+                return null;
+            }, null);
+            results.forEach(result -> recordIds.add((RecordId) result));
+        }
+        return recordIds;
+    }
+
+    @Override
+    public <T extends AbstractStreamMessage> boolean sendAsync(T message) {
+        if (closed) {
+            return false;
+        }
+        if (executor == null) {
+            startFlusher();
+        }
+        boolean offered = buffer.offer(message);
+        if (!offered) {
+            log.warn("Stream message buffer is full, message dropped, stream: {}", message.getStreamKey());
+        }
+        return offered;
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        synchronized (this) {
+            if (executor != null) {
+                // 等待缓冲队列中的消息发送完成
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 序列化消息，与{@link org.springframework.data.redis.core.StreamOperations#add(Record)}写入的格式一致，分区消息写入对应的子stream
+     *
+     * @param recordId 消息ID，为null时由Redis生成
+     * @param message  消息
+     * @return {@link ByteRecord}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ByteRecord serialize(RecordId recordId, AbstractStreamMessage message) {
+        ObjectRecord<String, String> record = Record.of(JSON.toJSONString(message))
+                .withStreamKey(StreamPartitions.resolve(message));
+        if (recordId != null) {
+            record = record.withId(recordId);
+        }
+        return record.toMapRecord(redisTemplate.opsForStream().getHashMapper(String.class))
+                .serialize((RedisSerializer) redisTemplate.getKeySerializer(),
+                        (RedisSerializer) redisTemplate.getHashKeySerializer(),
+                        (RedisSerializer) redisTemplate.getHashValueSerializer());
+    }
+
+    /**
+     * 获取XADD参数，配置了保留数量时写入同时按MAXLEN裁剪，分区时每个子stream分别保留
+     *
+     * @param streamKey stream key
+     * @return {@link RedisStreamCommands.XAddOptions}
+     */
+    private RedisStreamCommands.XAddOptions getAddOptions(String streamKey) {
+        long maxLen = properties.getMaxLen(streamKey);
+        if (maxLen <= 0L) {
+            return RedisStreamCommands.XAddOptions.none();
+        }
+        return RedisStreamCommands.XAddOptions.maxlen(maxLen).approximateTrimming(properties.isApproximateTrimming());
+    }
+
+    private synchronized void startFlusher() {
+        if (executor != null || closed) {
+            return;
+        }
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setThreadNamePrefix("redis-stream-producer-");
+        executor.initialize();
+        executor.execute(this::flushLoop);
+    }
+
+    /**
+     * 按数量或时间批量发送缓冲队列中的消息，关闭后发送剩余消息
+     */
+    private void flushLoop() {
+        int batchSize = properties.getAsync().getBatchSize();
+        long flushInterval = properties.getAsync().getFlushInterval().toMillis();
+        List<AbstractStreamMessage> batch = new ArrayList<>(batchSize);
+        try {
+            while (!closed) {
+                AbstractStreamMessage first = buffer.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushInterval;
+                while (batch.size() < batchSize) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0L) {
+                        break;
+                    }
+                    AbstractStreamMessage next = buffer.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        buffer.drainTo(batch);
+        flush(batch);
+    }
+
+    private void flush(List<AbstractStreamMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sendBatch(batch);
+        } catch (Exception e) {
+            log.error("Failed to send {} buffered stream messages", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package org.sunshine.core.cache;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * RedisClient使用的Lua脚本
+ *
+ * @author Teamo
+ * @since 2024/8/19
+ */
+final class RedisScripts {
+
+    /**
+     * 写入hash并设置过期时间，ARGV[1]为过期时间(秒)，之后依次为项、值
+     */
+    static final RedisScript<Long> HSET_EXPIRE = RedisScript.of(new ClassPathResource("scripts/hset_expire.lua"), Long.class);
+
+    /**
+     * 写入list并设置过期时间，ARGV[1]为过期时间(秒)，之后为值，返回list长度
+     */
+    static final RedisScript<Long> RPUSH_EXPIRE = RedisScript.of(new ClassPathResource("scripts/rpush_expire.lua"), Long.class);
+
+    /**
+     * 写入set并设置过期时间，ARGV[1]为过期时间(秒)，之后为值，返回成功个数
+     */
+    static final RedisScript<Long> SADD_EXPIRE = RedisScript.of(new ClassPathResource("scripts/sadd_expire.lua"), Long.class);
+
+    private RedisScripts() {
+    }
+}
@@ -1,5 +1,7 @@
 package org.sunshine.core.cache.annotation;
 
+import org.sunshine.core.cache.redisson.LockType;
+
 import java.lang.annotation.*;
 import java.util.concurrent.TimeUnit;
 
@@ -20,6 +22,22 @@ public @interface DistributedLock {
      */
     String name() default "";
 
+    /**
+     * 使用SpEL表达式从方法参数生成lockName，如：#order.id、#p0，name为空时生效，优先于param、argNum。
+     * 表达式结果为集合或数组时同时锁定所有名称，如：{#from.id, #to.id}
+     */
+    String key() default "";
+
+    /**
+     * 锁类型，READ类型的锁之间不互斥
+     */
+    LockType type() default LockType.REENTRANT;
+
+    /**
+     * 类型为FENCED时，将获取锁时返回的token注入到方法第tokenArgNum个参数，参数类型须为Long或long
+     */
+    int tokenArgNum() default 0;
+
     /**
      * lockName前缀
      */
@@ -51,6 +51,25 @@ public @interface RateLimit {
      */
     TimeUnit unit() default TimeUnit.SECONDS;
 
+    /**
+     * 突发容量，仅对{@link RateLimitType#TOKEN_BUCKET}、{@link RateLimitType#GCRA}生效，小于等于0时与limit相同
+     * <p>
+     * 平均速率为windowSize内limit个请求，空闲后最多允许连续通过burst个请求
+     *
+     * @return int
+     */
+    int burst() default 0;
+
+    /**
+     * 本地预取的请求数，大于0时开启本地预过滤，仅对{@link RateLimitType#FIXED_WINDOW}生效
+     * <p>
+     * 每个节点每次从Redis预留该数量的请求数，用完后再访问Redis，窗口内请求数耗尽后直到窗口结束都在本地拒绝；
+     * 未用完的预留会在窗口结束时作废，节点越多、预取越大，实际可通过的请求数越可能少于limit
+     *
+     * @return int
+     */
+    int leasePermits() default 0;
+
     /**
      * 提示消息
      *
@@ -84,7 +103,19 @@ public @interface RateLimit {
          * 滑动窗口
          * 在一定的时间段内允许要求的请求数量访问，超过则拒绝
          */
-        SLIDING_WINDOW
+        SLIDING_WINDOW,
+
+        /**
+         * 令牌桶
+         * 以windowSize内limit个的速率生成令牌，桶容量为burst，每个key只保存令牌数及更新时间
+         */
+        TOKEN_BUCKET,
+
+        /**
+         * 通用信元速率算法
+         * 与令牌桶效果相同，每个key只保存一个理论到达时间
+         */
+        GCRA
     }
 
     enum RateLimitKeyType {
@@ -1,17 +1,34 @@
 package org.sunshine.core.cache.aspect;
 
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.redisson.api.RFencedLock;
+import org.redisson.api.RLock;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.util.Assert;
 import org.sunshine.core.cache.annotation.DistributedLock;
+import org.sunshine.core.cache.redisson.LockStats;
+import org.sunshine.core.cache.redisson.LockType;
 import org.sunshine.core.cache.redisson.util.RedissonLockUtils;
 import org.sunshine.core.tool.util.ReflectionUtils;
 import org.sunshine.core.tool.util.StringUtils;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,48 +38,78 @@ import java.util.concurrent.TimeUnit;
 @Aspect
 public class DistributedLockAspect {
 
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 方法 -> 解析后的锁配置，每个方法只解析一次
+     */
+    private final Map<AnnotatedElementKey, LockMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    /**
+     * 统计名称 -> 统计，动态锁名称按方法统计
+     */
+    private final Map<String, LockStats> stats = new ConcurrentHashMap<>();
+
     @Around("@annotation(distributedLock)")
     public Object around(ProceedingJoinPoint pjp, DistributedLock distributedLock) throws Throwable {
         Class<?> targetClass = pjp.getTarget().getClass();
-        Signature signature = pjp.getSignature();
-        String methodName = signature.getName();
-        Class<?>[] parameterTypes = ((MethodSignature) signature).getMethod().getParameterTypes();
-        Method method = targetClass.getMethod(methodName, parameterTypes);
-        Object[] args = pjp.getArgs();
-        final String lockName = getLockName(method, args);
-        return lock(pjp, lockName, distributedLock);
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        LockMetadata metadata = metadataCache.computeIfAbsent(new AnnotatedElementKey(method, targetClass),
+                key -> new LockMetadata(AopUtils.getMostSpecificMethod(method, targetClass), distributedLock));
+        final RLock lock = getLock(metadata, pjp.getArgs());
+        return lock(pjp, lock, metadata);
+    }
+
+    /**
+     * 获取锁统计
+     *
+     * @return 统计名称 -> 统计，静态锁名称使用锁名称，动态锁名称使用类名#方法名
+     */
+    public Map<String, LockStats> getStats() {
+        return Collections.unmodifiableMap(stats);
     }
 
-    private String getLockName(Method method, Object[] args) {
-        Assert.notNull(method, "The method must not be null!");
+    private RLock getLock(LockMetadata metadata, Object[] args) {
+        DistributedLock annotation = metadata.annotation;
+        if (StringUtils.isEmpty(annotation.name()) && args.length > 0 && metadata.keyExpression != null) {
+            MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, metadata.method, args, PARAMETER_NAME_DISCOVERER);
+            Object key = metadata.keyExpression.getValue(context);
+            if (key instanceof Collection || key instanceof Object[]) {
+                Collection<?> keys = key instanceof Collection ? (Collection<?>) key : Arrays.asList((Object[]) key);
+                // 去重，同一名称只锁定一次
+                Set<String> lockNames = new LinkedHashSet<>(keys.size());
+                for (Object k : keys) {
+                    lockNames.add(getLockName(String.valueOf(k), metadata));
+                }
+                Assert.notEmpty(lockNames, "Can't get or generate lockName accurately!");
+                return RedissonLockUtils.getMultiLock(lockNames, annotation.type());
+            }
+            return RedissonLockUtils.getLock(getLockName(String.valueOf(key), metadata), annotation.type());
+        }
+        return RedissonLockUtils.getLock(getLockName(metadata, args), annotation.type());
+    }
 
-        DistributedLock annotation = method.getAnnotation(DistributedLock.class);
+    private String getLockName(LockMetadata metadata, Object[] args) {
+        DistributedLock annotation = metadata.annotation;
         String lockName = annotation.name();
-        String param = annotation.param();
 
         if (StringUtils.isEmpty(lockName) && args.length > 0) {
-            if (StringUtils.isNotEmpty(param)) {
+            if (StringUtils.isNotEmpty(annotation.param())) {
                 Object arg = annotation.argNum() > 0 ? args[annotation.argNum() - 1] : args[0];
-                lockName = String.valueOf(getParam(arg, param));
+                lockName = String.valueOf(getParam(arg, annotation.param()));
             } else if (annotation.argNum() > 0) {
                 lockName = args[annotation.argNum() - 1].toString();
             }
         }
 
-        Assert.hasText(lockName, "Can't get or generate lockName accurately!");
+        return getLockName(lockName, metadata);
+    }
 
-        String prefix = annotation.prefix();
-        String suffix = annotation.suffix();
-        String separator = annotation.separator();
-        StringBuffer lName = new StringBuffer();
-        if (StringUtils.isNotEmpty(prefix)) {
-            lName.append(prefix).append(separator);
-        }
-        lName.append(lockName);
-        if (StringUtils.isNotEmpty(suffix)) {
-            lName.append(separator).append(suffix);
-        }
-        return lName.toString();
+    private String getLockName(String lockName, LockMetadata metadata) {
+        Assert.hasText(lockName, "Can't get or generate lockName accurately!");
+        return metadata.namePrefix + lockName + metadata.nameSuffix;
     }
 
     /**
@@ -79,58 +126,163 @@ public class DistributedLockAspect {
         return ReflectionUtils.getPropertyValue(arg, param);
     }
 
-    private Object lock(ProceedingJoinPoint pjp, final String lockName, DistributedLock distributedLock) throws Throwable {
-        boolean tryLock = distributedLock.tryLock();
-        if (tryLock) {
-            return tryLock(pjp, distributedLock, lockName);
+    private Object lock(ProceedingJoinPoint pjp, final RLock lock, LockMetadata metadata) throws Throwable {
+        LockStats lockStats = stats.computeIfAbsent(metadata.statsName, key -> new LockStats());
+        if (metadata.annotation.tryLock()) {
+            return tryLock(pjp, metadata, lock, lockStats);
         } else {
-            return lock(pjp, lockName);
+            return lock(pjp, metadata, lock, lockStats);
         }
     }
 
     /**
      * 普通锁
      *
-     * @param pjp      连接点
-     * @param lockName 锁名称
+     * @param pjp       连接点
+     * @param metadata  锁配置
+     * @param lock      锁
+     * @param lockStats 统计
      * @return {Object}
      */
-    private Object lock(ProceedingJoinPoint pjp, final String lockName) throws Throwable {
+    private Object lock(ProceedingJoinPoint pjp, LockMetadata metadata, final RLock lock, LockStats lockStats) throws Throwable {
+        boolean locked = false;
         try {
-            RedissonLockUtils.lock(lockName);
-            return proceed(pjp);
-        } finally {
-            if (RedissonLockUtils.isHeldByCurrentThread(lockName)) {
-                RedissonLockUtils.unlock(lockName);
+            long start = System.nanoTime();
+            Long token = null;
+            boolean contended;
+            // 先尝试立即获取，失败时说明存在竞争，再阻塞等待
+            if (lock instanceof RFencedLock) {
+                token = ((RFencedLock) lock).tryLockAndGetToken();
+                contended = token == null;
+                if (contended) {
+                    token = ((RFencedLock) lock).lockAndGetToken();
+                }
+            } else {
+                contended = !lock.tryLock();
+                if (contended) {
+                    lock.lock();
+                }
             }
+            locked = true;
+            lockStats.recordAcquire(System.nanoTime() - start, contended, true);
+            return proceed(pjp, metadata, token);
+        } finally {
+            unlock(lock, locked);
         }
     }
 
     /**
      * 尝试锁
      *
-     * @param pjp             连接点
-     * @param distributedLock 分布式锁参数
-     * @param lockName        锁名称
+     * @param pjp       连接点
+     * @param metadata  锁配置
+     * @param lock      锁
+     * @param lockStats 统计
      * @return {Object}
      */
-    private Object tryLock(ProceedingJoinPoint pjp, DistributedLock distributedLock, final String lockName) throws Throwable {
+    private Object tryLock(ProceedingJoinPoint pjp, LockMetadata metadata, final RLock lock,
+                           LockStats lockStats) throws Throwable {
+        DistributedLock distributedLock = metadata.annotation;
         long waitTime = distributedLock.waitTime();
         long leaseTime = distributedLock.leaseTime();
         TimeUnit timeUnit = distributedLock.timeUnit();
-        boolean lock = false;
+        boolean locked = false;
+        long acquiredAt = 0L;
         try {
-            lock = RedissonLockUtils.tryLock(lockName, waitTime, leaseTime, timeUnit);
-            if (lock) {
-                return proceed(pjp);
+            long start = System.nanoTime();
+            Long token = tryLock(lock, 0L, leaseTime, timeUnit);
+            boolean contended = token == null;
+            if (contended && waitTime > 0L) {
+                token = tryLock(lock, waitTime, leaseTime, timeUnit);
+            }
+            locked = token != null;
+            acquiredAt = System.nanoTime();
+            lockStats.recordAcquire(acquiredAt - start, contended, locked);
+            if (locked) {
+                return proceed(pjp, metadata, lock instanceof RFencedLock ? token : null);
             }
         } finally {
-            RedissonLockUtils.unlock(lock, lockName);
+            if (locked && leaseTime > 0L && System.nanoTime() - acquiredAt > timeUnit.toNanos(leaseTime)) {
+                // 执行时间超过租期，锁已自动释放，期间可能被其他节点获取
+                lockStats.recordLeaseOverrun();
+            }
+            unlock(lock, locked);
         }
         return null;
     }
 
-    private Object proceed(ProceedingJoinPoint pjp) throws Throwable {
-        return pjp.proceed();
+    /**
+     * 尝试获取锁
+     *
+     * @return fencing锁返回token，其余锁获取成功时返回0，未获取到时返回null
+     */
+    private Long tryLock(RLock lock, long waitTime, long leaseTime, TimeUnit timeUnit) throws InterruptedException {
+        if (lock instanceof RFencedLock) {
+            return ((RFencedLock) lock).tryLockAndGetToken(waitTime, leaseTime, timeUnit);
+        }
+        return lock.tryLock(waitTime, leaseTime, timeUnit) ? 0L : null;
+    }
+
+    private void unlock(RLock lock, boolean locked) {
+        if (!locked) {
+            return;
+        }
+        try {
+            // MultiLock不支持isHeldByCurrentThread，直接释放，超过租期已自动释放时忽略
+            lock.unlock();
+        } catch (IllegalMonitorStateException e) {
+            // ignore
+        }
+    }
+
+    private Object proceed(ProceedingJoinPoint pjp, LockMetadata metadata, Long token) throws Throwable {
+        if (metadata.tokenIndex < 0) {
+            return pjp.proceed();
+        }
+        Object[] args = pjp.getArgs().clone();
+        args[metadata.tokenIndex] = token;
+        return pjp.proceed(args);
+    }
+
+    /**
+     * 方法上解析好的锁配置
+     */
+    private static class LockMetadata {
+
+        private final Method method;
+
+        private final DistributedLock annotation;
+
+        private final String namePrefix;
+
+        private final String nameSuffix;
+
+        private final Expression keyExpression;
+
+        private final String statsName;
+
+        /**
+         * 注入token的参数下标，不注入时为-1
+         */
+        private final int tokenIndex;
+
+        LockMetadata(Method method, DistributedLock annotation) {
+            this.method = method;
+            this.annotation = annotation;
+            String separator = annotation.separator();
+            this.namePrefix = StringUtils.isNotEmpty(annotation.prefix()) ? annotation.prefix() + separator : "";
+            this.nameSuffix = StringUtils.isNotEmpty(annotation.suffix()) ? separator + annotation.suffix() : "";
+            this.keyExpression = StringUtils.isNotEmpty(annotation.key()) ? PARSER.parseExpression(annotation.key()) : null;
+            this.statsName = StringUtils.isNotEmpty(annotation.name())
+                    ? namePrefix + annotation.name() + nameSuffix
+                    : method.getDeclaringClass().getName() + "#" + method.getName();
+            this.tokenIndex = annotation.tokenArgNum() - 1;
+            if (tokenIndex >= 0) {
+                Assert.isTrue(annotation.type() == LockType.FENCED, "tokenArgNum requires LockType.FENCED: " + method);
+                Assert.isTrue(tokenIndex < method.getParameterCount(), "tokenArgNum out of range: " + method);
+                Class<?> tokenType = method.getParameterTypes()[tokenIndex];
+                Assert.isTrue(tokenType == Long.class || tokenType == long.class, "Token parameter must be Long or long: " + method);
+            }
+        }
     }
 }
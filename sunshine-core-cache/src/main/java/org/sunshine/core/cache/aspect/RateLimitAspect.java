@@ -1,5 +1,7 @@
 package org.sunshine.core.cache.aspect;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.collect.ImmutableList;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -7,8 +9,9 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
-import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.Assert;
 import org.sunshine.core.cache.annotation.RateLimit;
 import org.sunshine.core.tool.exception.BusinessException;
@@ -19,6 +22,7 @@ import org.sunshine.core.tool.util.WebUtils;
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -29,8 +33,31 @@ import java.util.concurrent.TimeUnit;
 @Aspect
 public class RateLimitAspect {
 
+    /**
+     * 脚本参数按字符串写入，不受RedisTemplate值序列化方式的影响
+     */
+    private static final RedisSerializer<Object> ARGS_SERIALIZER = new GenericToStringSerializer<>(Object.class);
+
+    private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    /**
+     * 脚本返回数组时按元素反序列化，因此与{@link #RESULT_SERIALIZER}相同
+     */
+    @SuppressWarnings("unchecked")
+    private static final RedisSerializer<List<Long>> LIST_RESULT_SERIALIZER = (RedisSerializer<List<Long>>) (RedisSerializer<?>) RESULT_SERIALIZER;
+
+    /**
+     * 本地预取的最大key数量
+     */
+    private static final long MAX_LEASES = 10000L;
+
     private final RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * 本地预取的请求数，key -> 预取
+     */
+    private final Cache<String, Lease> leases = Caffeine.newBuilder().maximumSize(MAX_LEASES).build();
+
     public RateLimitAspect(RedisTemplate<String, Object> redisTemplate) {
         this.redisTemplate = redisTemplate;
     }
@@ -52,9 +79,16 @@ public class RateLimitAspect {
                 key = WebUtils.getIP();
             }
         }
-        ImmutableList<String> keys = ImmutableList.of(rateLimit.prefix() + key + StringPool.COLON + request.getRequestURI());
-        Long result = selectLimitType(keys, rateLimit);
-        if (result == null || result.equals(0L)) {
+        String limitKey = rateLimit.prefix() + key + StringPool.COLON + request.getRequestURI();
+        boolean allowed;
+        if (rateLimit.leasePermits() > 0 && rateLimit.type().equals(RateLimit.RateLimitType.FIXED_WINDOW)) {
+            // 本地预过滤
+            allowed = leases.get(limitKey, k -> new Lease()).tryAcquire(limitKey, rateLimit);
+        } else {
+            Long result = selectLimitType(ImmutableList.of(limitKey), rateLimit);
+            allowed = result != null && !result.equals(0L);
+        }
+        if (!allowed) {
             throw new BusinessException(rateLimit.msg());
         }
         return joinPoint.proceed();
@@ -63,38 +97,125 @@ public class RateLimitAspect {
     private Long selectLimitType(ImmutableList<String> keys, RateLimit rateLimit) {
         Long result = null;
         RateLimit.RateLimitType type = rateLimit.type();
-        DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
         TimeUnit unit = rateLimit.unit();
-        redisScript.setResultType(Long.class);
         RateLimitScriptSingleton scriptSingleton = RateLimitScriptSingleton.INSTANCE;
         if (type.equals(RateLimit.RateLimitType.FIXED_WINDOW)) {
             // 固定窗口
-            redisScript.setScriptSource(scriptSingleton.getScriptSource(RateLimit.RateLimitType.FIXED_WINDOW));
-            result = redisTemplate.execute(redisScript, keys, rateLimit.limit(), unit.toSeconds(rateLimit.windowSize()));
+            result = redisTemplate.execute(scriptSingleton.getScript(type), ARGS_SERIALIZER, RESULT_SERIALIZER, keys,
+                    rateLimit.limit(), unit.toSeconds(rateLimit.windowSize()));
         } else if (type.equals(RateLimit.RateLimitType.SLIDING_WINDOW)) {
             // 滑动窗口
             long currentTime = System.currentTimeMillis();
             long windowStart = currentTime - unit.toMillis(rateLimit.windowSize());
-            redisScript.setScriptSource(scriptSingleton.getScriptSource(RateLimit.RateLimitType.SLIDING_WINDOW));
-            result = redisTemplate.execute(redisScript, keys, currentTime, windowStart, rateLimit.limit());
+            result = redisTemplate.execute(scriptSingleton.getScript(type), ARGS_SERIALIZER, RESULT_SERIALIZER, keys,
+                    currentTime, windowStart, rateLimit.limit());
+        } else if (type.equals(RateLimit.RateLimitType.TOKEN_BUCKET)) {
+            // 令牌桶
+            double rate = (double) rateLimit.limit() / unit.toMillis(rateLimit.windowSize());
+            result = redisTemplate.execute(scriptSingleton.getScript(type), ARGS_SERIALIZER, RESULT_SERIALIZER, keys,
+                    getBurst(rateLimit), rate);
+        } else if (type.equals(RateLimit.RateLimitType.GCRA)) {
+            // 通用信元速率算法
+            double emissionInterval = (double) unit.toMillis(rateLimit.windowSize()) / rateLimit.limit();
+            result = redisTemplate.execute(scriptSingleton.getScript(type), ARGS_SERIALIZER, RESULT_SERIALIZER, keys,
+                    emissionInterval, getBurst(rateLimit));
         } else {
             throw new IllegalArgumentException("Invalid rate limit type: " + type);
         }
         return result;
     }
 
+    private int getBurst(RateLimit rateLimit) {
+        return rateLimit.burst() > 0 ? rateLimit.burst() : rateLimit.limit();
+    }
+
+    /**
+     * 从Redis预留请求数
+     *
+     * @param key       限流key
+     * @param rateLimit 限流注解
+     * @return [预留的请求数, 窗口剩余时间(毫秒)]
+     */
+    private long[] lease(String key, RateLimit rateLimit) {
+        List<Long> result = redisTemplate.execute(RateLimitScriptSingleton.INSTANCE.getLeaseScript(), ARGS_SERIALIZER,
+                LIST_RESULT_SERIALIZER, ImmutableList.of(key), rateLimit.limit(),
+                rateLimit.unit().toSeconds(rateLimit.windowSize()), rateLimit.leasePermits());
+        if (result == null || result.size() < 2) {
+            return new long[]{0L, 0L};
+        }
+        return new long[]{result.get(0), result.get(1)};
+    }
+
+    /**
+     * 节点本地预取的请求数，在窗口内用完后再从Redis预留
+     */
+    private class Lease {
+
+        private long remaining;
+
+        private long expireAt;
+
+        /**
+         * 本窗口内Redis中的请求数是否已耗尽
+         */
+        private boolean exhausted;
+
+        synchronized boolean tryAcquire(String key, RateLimit rateLimit) {
+            long now = System.currentTimeMillis();
+            if (now >= expireAt) {
+                remaining = 0L;
+                exhausted = false;
+            }
+            if (remaining <= 0L) {
+                if (exhausted) {
+                    // 窗口结束前无需再访问Redis
+                    return false;
+                }
+                long[] lease = lease(key, rateLimit);
+                remaining = lease[0];
+                exhausted = remaining <= 0L;
+                // 窗口剩余时间异常时按完整窗口计算
+                expireAt = now + (lease[1] > 0L ? lease[1] : rateLimit.unit().toMillis(rateLimit.windowSize()));
+            }
+            if (remaining <= 0L) {
+                return false;
+            }
+            remaining--;
+            return true;
+        }
+    }
+
     private enum RateLimitScriptSingleton {
         INSTANCE;
 
-        private final Map<RateLimit.RateLimitType, ResourceScriptSource> scriptSources = new EnumMap<>(RateLimit.RateLimitType.class);
+        /**
+         * 脚本对象只创建一次，执行时使用EVALSHA
+         */
+        private final Map<RateLimit.RateLimitType, RedisScript<Long>> scripts = new EnumMap<>(RateLimit.RateLimitType.class);
+
+        private final RedisScript<List<Long>> leaseScript = listScript("scripts/fixed_window_lease.lua");
 
         {
-            scriptSources.put(RateLimit.RateLimitType.FIXED_WINDOW, new ResourceScriptSource(new ClassPathResource("scripts/fixed_window.lua")));
-            scriptSources.put(RateLimit.RateLimitType.SLIDING_WINDOW, new ResourceScriptSource(new ClassPathResource("scripts/sliding_window.lua")));
+            scripts.put(RateLimit.RateLimitType.FIXED_WINDOW, RedisScript.of(new ClassPathResource("scripts/fixed_window.lua"), Long.class));
+            scripts.put(RateLimit.RateLimitType.SLIDING_WINDOW, RedisScript.of(new ClassPathResource("scripts/sliding_window.lua"), Long.class));
+            scripts.put(RateLimit.RateLimitType.TOKEN_BUCKET, RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), Long.class));
+            scripts.put(RateLimit.RateLimitType.GCRA, RedisScript.of(new ClassPathResource("scripts/gcra.lua"), Long.class));
+        }
+
+        public RedisScript<Long> getScript(RateLimit.RateLimitType type) {
+            return scripts.get(type);
+        }
+
+        public RedisScript<List<Long>> getLeaseScript() {
+            return leaseScript;
         }
 
-        public ResourceScriptSource getScriptSource(RateLimit.RateLimitType type) {
-            return scriptSources.get(type);
+        /**
+         * 返回数组的脚本，结果类型只能声明为List.class
+         */
+        @SuppressWarnings("unchecked")
+        private static RedisScript<List<Long>> listScript(String path) {
+            return (RedisScript<List<Long>>) (RedisScript<?>) RedisScript.of(new ClassPathResource(path), List.class);
         }
     }
 }
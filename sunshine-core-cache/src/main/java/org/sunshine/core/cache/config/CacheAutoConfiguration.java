@@ -10,11 +10,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
-import org.springframework.cache.CacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
@@ -23,19 +26,32 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.Assert;
-import org.sunshine.core.cache.RedisClient;
-import org.sunshine.core.cache.RedisClientImpl;
+import org.springframework.util.ClassUtils;
+import org.sunshine.core.cache.*;
 import org.sunshine.core.cache.aspect.RateLimitAspect;
+import org.sunshine.core.cache.properties.CustomCacheProperties;
+import org.sunshine.core.cache.properties.RedisSerializerType;
+import org.sunshine.core.cache.redisson.Locker;
+import org.sunshine.core.cache.serializer.CompressRedisSerializer;
+import org.sunshine.core.cache.serializer.JsonbRedisSerializer;
+import org.sunshine.core.cache.support.CacheMessageListener;
+import org.sunshine.core.cache.support.CacheMessagePublisher;
 import org.sunshine.core.cache.support.CustomCacheManager;
 
 import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * @author Teamo
@@ -44,23 +60,30 @@ import java.util.concurrent.TimeUnit;
 @EnableCaching
 @AutoConfiguration
 @AutoConfigureBefore(RedisAutoConfiguration.class)
+@EnableConfigurationProperties(CustomCacheProperties.class)
 public class CacheAutoConfiguration {
 
     private final static Logger log = LoggerFactory.getLogger(CacheAutoConfiguration.class);
 
+    private final CustomCacheProperties customCacheProperties;
+
+    public CacheAutoConfiguration(CustomCacheProperties customCacheProperties) {
+        this.customCacheProperties = customCacheProperties;
+    }
+
     @Bean
     @ConditionalOnMissingBean(RedisTemplate.class)
     public RedisTemplate<String, Object> redisTemplate(LettuceConnectionFactory factory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(factory);
-        RedisSerializer<?> redisSerializer = getRedisSerializer(new FastJsonRedisSerializer<>(Object.class));
+        RedisSerializer<?> redisSerializer = createRedisSerializer(customCacheProperties.getSerializer());
         // key采用String的序列化方式
         template.setKeySerializer(RedisSerializer.string());
         // hash的key也采用String的序列化方式
         template.setHashKeySerializer(RedisSerializer.string());
-        // value序列化方式采用fastjson
+        // value序列化方式，默认采用fastjson
         template.setValueSerializer(redisSerializer);
-        // hash的value序列化方式采用fastjson
+        // hash的value序列化方式，默认采用fastjson
         template.setHashValueSerializer(redisSerializer);
         template.afterPropertiesSet();
         return template;
@@ -71,15 +94,53 @@ public class CacheAutoConfiguration {
         return new RedisClientImpl(redisTemplate);
     }
 
+    /**
+     * 使用单独的Bean名称，不覆盖Spring Boot默认的reactiveRedisTemplate
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "sunshineReactiveRedisTemplate")
+    @SuppressWarnings("unchecked")
+    public ReactiveRedisTemplate<String, Object> sunshineReactiveRedisTemplate(LettuceConnectionFactory factory,
+                                                                               RedisTemplate<String, Object> redisTemplate) {
+        // 与redisTemplate使用相同的序列化方式，两者写入的数据可互相读取
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisSerializer<Object> hashValueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(RedisSerializer.string())
+                .value(valueSerializer)
+                .hashKey(RedisSerializer.string())
+                .hashValue(hashValueSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(factory, serializationContext);
+    }
+
+    @Bean
+    public ReactiveRedisClient reactiveRedisClient(@Qualifier("sunshineReactiveRedisTemplate") ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
+        return new ReactiveRedisClientImpl(reactiveRedisTemplate);
+    }
+
+    @Bean
+    public AsyncRedisClient asyncRedisClient(ReactiveRedisClient reactiveRedisClient) {
+        return new AsyncRedisClientImpl(reactiveRedisClient);
+    }
+
     @Bean
     @ConditionalOnMissingBean(RedisCacheManager.class)
     public RedisCacheManager redisCacheManager(LettuceConnectionFactory factory) {
-        RedisSerializer<?> redisSerializer = getRedisSerializer(new FastJsonRedisSerializer<>(Object.class));
         RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(2L))
+                .entryTtl(customCacheProperties.getRemoteTtl())
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisSerializer));
-        return RedisCacheManager.builder(RedisCacheWriter.nonLockingRedisCacheWriter(factory)).cacheDefaults(redisCacheConfiguration).build();
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(createRedisSerializer(customCacheProperties.getSerializer())));
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>(16);
+        customCacheProperties.getCaches().forEach((name, spec) -> {
+            if (spec.hasRemoteSpec()) {
+                cacheConfigurations.put(name, getRedisCacheConfiguration(redisCacheConfiguration, spec));
+            }
+        });
+        return RedisCacheManager.builder(RedisCacheWriter.nonLockingRedisCacheWriter(factory))
+                .cacheDefaults(redisCacheConfiguration)
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .build();
     }
 
     @Bean
@@ -88,9 +149,9 @@ public class CacheAutoConfiguration {
         CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
         Caffeine<Object, Object> caffeine = Caffeine.newBuilder()
                 // 超出时淘汰
-                .maximumSize(10000)
-                // 写入后经过120秒过期
-                .expireAfterWrite(120, TimeUnit.SECONDS);
+                .maximumSize(customCacheProperties.getLocalMaximumSize())
+                // 写入后过期
+                .expireAfterWrite(customCacheProperties.getLocalExpireAfterWrite());
         caffeineCacheManager.setCaffeine(caffeine);
         return caffeineCacheManager;
     }
@@ -100,12 +161,113 @@ public class CacheAutoConfiguration {
      *
      * @param caffeineCacheManager caffeine缓存管理器
      * @param redisCacheManager    redis缓存管理器
+     * @param redisTemplate        redisTemplate
+     * @param lockerProvider       分布式锁，开启Redisson时可用
      * @return CacheManager
      */
     @Bean
     @Primary
-    public CacheManager cacheManager(CaffeineCacheManager caffeineCacheManager, RedisCacheManager redisCacheManager) {
-        return new CustomCacheManager(caffeineCacheManager, redisCacheManager);
+    public CustomCacheManager cacheManager(CaffeineCacheManager caffeineCacheManager,
+                                           RedisCacheManager redisCacheManager,
+                                           RedisTemplate<String, Object> redisTemplate,
+                                           ObjectProvider<Locker> lockerProvider) {
+        CustomCacheProperties.Sync sync = customCacheProperties.getSync();
+        CacheMessagePublisher publisher = sync.isEnable() ? new CacheMessagePublisher(redisTemplate, sync.getTopic()) : null;
+        Locker locker = null;
+        if (customCacheProperties.getDistributedLoad().isEnable()) {
+            locker = lockerProvider.getIfAvailable();
+            if (locker == null) {
+                log.warn("Distributed cache load requires 'spring.redis.redisson.enable=true', fall back to local load!");
+            }
+        }
+        ThreadPoolTaskExecutor refreshExecutor = customCacheProperties.isAnyRefreshEnabled() ? getRefreshExecutor() : null;
+        return new CustomCacheManager(caffeineCacheManager, redisCacheManager, publisher, locker, customCacheProperties, refreshExecutor);
+    }
+
+    /**
+     * 多节点本地缓存同步监听容器
+     *
+     * @param factory            redis连接工厂
+     * @param customCacheManager 二级缓存管理器
+     * @param redisTemplate      redisTemplate
+     * @return RedisMessageListenerContainer
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.cache.custom.sync", name = "enable", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheMessageListenerContainer(LettuceConnectionFactory factory,
+                                                                       CustomCacheManager customCacheManager,
+                                                                       RedisTemplate<String, Object> redisTemplate) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        CacheMessageListener listener = new CacheMessageListener(redisTemplate.getValueSerializer(), customCacheManager);
+        container.addMessageListener(listener, new ChannelTopic(customCacheProperties.getSync().getTopic()));
+        return container;
+    }
+
+    /**
+     * 按缓存配置覆盖默认的远程缓存配置
+     *
+     * @param defaultConfiguration 默认配置
+     * @param spec                 缓存配置
+     * @return RedisCacheConfiguration
+     */
+    private RedisCacheConfiguration getRedisCacheConfiguration(RedisCacheConfiguration defaultConfiguration,
+                                                               CustomCacheProperties.CacheSpec spec) {
+        RedisCacheConfiguration configuration = defaultConfiguration;
+        Duration ttl = spec.getRemoteTtl() != null ? spec.getRemoteTtl() : defaultConfiguration.getTtl();
+        if (spec.isRefreshEnabled()) {
+            // 开启提前刷新时，远程缓存需保留到允许返回旧值的最长时间之后
+            Duration staleTtl = spec.getRefreshAfter().plus(spec.getMaxStale());
+            if (staleTtl.compareTo(ttl) > 0) {
+                ttl = staleTtl;
+            }
+        }
+        configuration = configuration.entryTtl(ttl);
+        if (!spec.isCacheNullValues()) {
+            configuration = configuration.disableCachingNullValues();
+        }
+        if (spec.getSerializer() != null) {
+            configuration = configuration.serializeValuesWith(
+                    RedisSerializationContext.SerializationPair.fromSerializer(createRedisSerializer(spec.getSerializer())));
+        }
+        return configuration;
+    }
+
+    /**
+     * 根据序列化方式创建redis序列化器，开启压缩时包装为压缩序列化器
+     *
+     * @param type 序列化方式
+     * @return 一个完整配置的redis序列化器
+     */
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<?> createRedisSerializer(RedisSerializerType type) {
+        RedisSerializer<?> redisSerializer;
+        switch (type) {
+            case JSONB:
+                FastJsonRedisSerializer<Object> jsonbRedisSerializer = new FastJsonRedisSerializer<>(Object.class);
+                jsonbRedisSerializer.getFastJsonConfig().setJSONB(true);
+                // 兼容incr等命令写入的纯文本数字
+                redisSerializer = new JsonbRedisSerializer<>((RedisSerializer<Object>) getRedisSerializer(jsonbRedisSerializer));
+                break;
+            case JACKSON:
+                redisSerializer = getRedisSerializer(new Jackson2JsonRedisSerializer<>(Object.class));
+                break;
+            case JDK:
+                redisSerializer = RedisSerializer.java();
+                break;
+            case FASTJSON:
+            default:
+                redisSerializer = getRedisSerializer(new FastJsonRedisSerializer<>(Object.class));
+        }
+        CustomCacheProperties.Compression compression = customCacheProperties.getCompression();
+        if (!compression.isEnable()) {
+            return redisSerializer;
+        }
+        if (!ClassUtils.isPresent("net.jpountz.lz4.LZ4Factory", getClass().getClassLoader())) {
+            log.warn("Redis value compression requires 'org.lz4:lz4-java', compression is disabled!");
+            return redisSerializer;
+        }
+        return new CompressRedisSerializer<>((RedisSerializer<Object>) redisSerializer, (int) compression.getThreshold().toBytes());
     }
 
     /**
@@ -131,17 +293,44 @@ public class CacheAutoConfiguration {
                     JSONReader.Feature.SupportArrayToBean,
                     JSONReader.Feature.SupportAutoType
             );
-            fastJsonConfig.setWriterFeatures(
-                    JSONWriter.Feature.WriteClassName,
-                    JSONWriter.Feature.WriteMapNullValue,
-                    JSONWriter.Feature.NotWriteNumberClassName
-            );
+            if (fastJsonConfig.isJSONB()) {
+                // 二进制格式不写入null字段，重复的字段名及类名写为符号引用
+                fastJsonConfig.setWriterFeatures(
+                        JSONWriter.Feature.WriteClassName,
+                        JSONWriter.Feature.FieldBased,
+                        JSONWriter.Feature.WriteNameAsSymbol,
+                        JSONWriter.Feature.NotWriteNumberClassName
+                );
+            } else {
+                fastJsonConfig.setWriterFeatures(
+                        JSONWriter.Feature.WriteClassName,
+                        JSONWriter.Feature.WriteMapNullValue,
+                        JSONWriter.Feature.NotWriteNumberClassName
+                );
+            }
         } else {
             log.warn("Did not find what you need RedisSerializer, please confirm the correctness of the RedisSerializer!");
         }
         return redisSerializer;
     }
 
+    /**
+     * 获取缓存后台刷新线程池
+     *
+     * @return 线程池
+     */
+    private ThreadPoolTaskExecutor getRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(customCacheProperties.getRefreshThreads());
+        executor.setMaxPoolSize(customCacheProperties.getRefreshThreads());
+        // 队列满时由调用方跳过本次刷新，继续返回旧值
+        executor.setQueueCapacity(customCacheProperties.getRefreshQueueCapacity());
+        executor.setThreadNamePrefix("cache-refresh-executor-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
     @Bean
     public RateLimitAspect rateLimitAspect(RedisTemplate<String, Object> redisTemplate) {
         return new RateLimitAspect(redisTemplate);
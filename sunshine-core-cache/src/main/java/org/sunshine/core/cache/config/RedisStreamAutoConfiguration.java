@@ -1,6 +1,5 @@
 package org.sunshine.core.cache.config;
 
-import com.alibaba.fastjson2.support.spring.data.redis.FastJsonRedisSerializer;
 import com.alibaba.ttl.TtlRunnable;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -20,20 +19,19 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.Assert;
 import org.sunshine.core.cache.RedisMQTemplate;
 import org.sunshine.core.cache.RedisMQTemplateImpl;
-import org.sunshine.core.cache.stream.AbstractStreamListener;
-import org.sunshine.core.cache.stream.RedisPendingMessageScheduledTask;
+import org.sunshine.core.cache.properties.RedisStreamProperties;
+import org.sunshine.core.cache.stream.*;
 import org.sunshine.core.tool.util.INetUtils;
 
 import java.lang.management.ManagementFactory;
 import java.util.List;
-import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * @author Teamo
  * @since 2023/5/26
  */
 @AutoConfiguration(after = CacheAutoConfiguration.class)
-@EnableConfigurationProperties(RedisProperties.class)
+@EnableConfigurationProperties({RedisProperties.class, RedisStreamProperties.class})
 public class RedisStreamAutoConfiguration {
 
     private final RedisProperties redisProperties;
@@ -43,8 +41,8 @@ public class RedisStreamAutoConfiguration {
     }
 
     @Bean
-    public RedisMQTemplate redisMQTemplate(RedisTemplate<String, Object> redisTemplate) {
-        return new RedisMQTemplateImpl(redisTemplate);
+    public RedisMQTemplate redisMQTemplate(RedisTemplate<String, Object> redisTemplate, RedisStreamProperties redisStreamProperties) {
+        return new RedisMQTemplateImpl(redisTemplate, redisStreamProperties);
     }
 
     /**
@@ -56,6 +54,7 @@ public class RedisStreamAutoConfiguration {
     @ConditionalOnBean(AbstractStreamListener.class)
     @ConditionalOnMissingBean(StreamMessageListenerContainer.class)
     @Bean(initMethod = "start", destroyMethod = "stop")
+    @SuppressWarnings("unchecked")
     public StreamMessageListenerContainer<String, ObjectRecord<String, String>> streamMessageListenerContainer(List<AbstractStreamListener<?>> listeners,
                                                                                                                RedisMQTemplate redisMQTemplate) {
         StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, ObjectRecord<String, String>> options =
@@ -64,10 +63,12 @@ public class RedisStreamAutoConfiguration {
                         .batchSize(10)
                         .keySerializer(RedisSerializer.string())
                         .hashKeySerializer(RedisSerializer.string())
-                        .hashValueSerializer(new FastJsonRedisSerializer<>(String.class))
+                        // 与发送消息时使用的序列化方式一致
+                        .hashValueSerializer((RedisSerializer<String>) redisMQTemplate.redisTemplate().getHashValueSerializer())
                         .objectMapper(new ObjectHashMapper())
                         .targetType(String.class)
-                        .executor(getExecutor())
+                        // 每个订阅的拉取任务长期占用一个线程
+                        .executor(getExecutor(listeners.stream().mapToInt(listener -> listener.getStreamKeys().size()).sum()))
                         .build();
 
         Assert.isTrue(options.getPollTimeout().compareTo(redisProperties.getTimeout()) < 0, "Poll timeout must be smaller than 'spring.redis.timeout'!");
@@ -76,38 +77,56 @@ public class RedisStreamAutoConfiguration {
                 .create(redisMQTemplate.redisTemplate().getRequiredConnectionFactory(), options);
 
         String consumerName = buildConsumerName();
-        listeners.parallelStream().forEach(listener -> {
-            String streamKey = listener.getStreamKey();
+        listeners.forEach(listener -> {
             String group = listener.getGroup();
-
-            try {
-                redisMQTemplate.redisTemplate().opsForStream().createGroup(streamKey, group);
-            } catch (Exception ignore) {
-            }
-
             listener.setRedisMQTemplate(redisMQTemplate);
-
-            StreamMessageListenerContainer.StreamReadRequest<String> streamReadRequest = StreamMessageListenerContainer.StreamReadRequest
-                    // 指定消费最新的消息
-                    .builder(StreamOffset.create(streamKey, ReadOffset.lastConsumed()))
-                    // 创建消费者
-                    .consumer(Consumer.from(group, consumerName))
-                    .cancelOnError(e -> false)
-                    // 关闭自动ack确认
-                    .autoAcknowledge(false)
-                    .build();
-            // 指定消费者对象
-            container.register(streamReadRequest, listener);
+            // 分区时订阅所有子stream，每个子stream使用各自的消费组
+            listener.getStreamKeys().forEach(streamKey -> {
+                try {
+                    redisMQTemplate.redisTemplate().opsForStream().createGroup(streamKey, group);
+                } catch (Exception ignore) {
+                }
+
+                StreamMessageListenerContainer.StreamReadRequest<String> streamReadRequest = StreamMessageListenerContainer.StreamReadRequest
+                        // 指定消费最新的消息
+                        .builder(StreamOffset.create(streamKey, ReadOffset.lastConsumed()))
+                        // 创建消费者
+                        .consumer(Consumer.from(group, consumerName))
+                        .cancelOnError(e -> false)
+                        // 关闭自动ack确认
+                        .autoAcknowledge(false)
+                        .build();
+                // 指定消费者对象
+                container.register(streamReadRequest, listener);
+            });
         });
         return container;
     }
 
+    /**
+     * 创建批量消费监听容器
+     *
+     * @param listeners 批量消费监听器
+     * @return 批量消费监听容器
+     */
+    @ConditionalOnBean(AbstractBatchStreamListener.class)
+    @ConditionalOnMissingBean(BatchStreamListenerContainer.class)
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public BatchStreamListenerContainer batchStreamListenerContainer(List<AbstractBatchStreamListener<?>> listeners,
+                                                                     RedisMQTemplate redisMQTemplate) {
+        listeners.forEach(listener -> Assert.isTrue(listener.getMaxWait().compareTo(redisProperties.getTimeout()) < 0,
+                "Max wait of " + listener.getClass().getName() + " must be smaller than 'spring.redis.timeout'!"));
+        return new BatchStreamListenerContainer(listeners, redisMQTemplate, buildConsumerName());
+    }
+
     @Bean
-    @ConditionalOnBean(AbstractStreamListener.class)
+    @ConditionalOnBean(AbstractStreamConsumer.class)
     @ConditionalOnMissingBean(RedisPendingMessageScheduledTask.class)
-    public RedisPendingMessageScheduledTask redisPendingMessageScheduledTask(List<AbstractStreamListener<?>> listeners,
-                                                                             RedisMQTemplate redisMQTemplate) {
-        return new RedisPendingMessageScheduledTask(listeners, redisMQTemplate);
+    public RedisPendingMessageScheduledTask redisPendingMessageScheduledTask(List<AbstractStreamConsumer<?>> listeners,
+                                                                             RedisMQTemplate redisMQTemplate,
+                                                                             RedisStreamProperties redisStreamProperties) {
+        listeners.forEach(listener -> listener.setRedisMQTemplate(redisMQTemplate));
+        return new RedisPendingMessageScheduledTask(listeners, redisMQTemplate, redisStreamProperties.getPending(), buildConsumerName());
     }
 
     /**
@@ -121,30 +140,23 @@ public class RedisStreamAutoConfiguration {
     }
 
     /**
-     * 获取线程池
+     * 获取线程池，每个订阅的拉取任务占用一个线程，消息处理由监听器按配置的并发数分发
      *
+     * @param size 订阅数量
      * @return 线程池
      */
-    private ThreadPoolTaskExecutor getExecutor() {
-        int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private ThreadPoolTaskExecutor getExecutor(int size) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        //核心线程池数量
-        executor.setCorePoolSize(corePoolSize);
-        //最大线程数量
-        executor.setMaxPoolSize(Math.max(corePoolSize * 4, 512));
-        //线程池的队列容量
-        executor.setQueueCapacity(500);
-        //当线程超过corePoolSize，线程存活时间
-        executor.setKeepAliveSeconds(60);
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        // 不排队，避免拉取任务在队列中等待而无法消费
+        executor.setQueueCapacity(0);
         //用来设置线程池关闭的时候等待所有任务都完成再继续销毁其他的Bean
         executor.setWaitForTasksToCompleteOnShutdown(true);
         //线程池中任务的等待时间，如果超过这个时候还没有销毁就强制销毁
         executor.setAwaitTerminationSeconds(120);
         //线程名称的前缀
         executor.setThreadNamePrefix("redis-stream-executor-");
-        // setRejectedExecutionHandler：当pool已经达到max size的时候，如何处理新任务
-        // CallerRunsPolicy：不在新线程中执行任务，而是由调用者所在的线程来执行
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         // 解决子线程无法获取父线程的上下文数据
         executor.setTaskDecorator(TtlRunnable::get);
         executor.initialize();
@@ -20,7 +20,9 @@ import org.sunshine.core.cache.properties.RedissonProperties;
 import org.sunshine.core.cache.redisson.RedissonLocker;
 import org.sunshine.core.cache.redisson.queue.DelayedQueueListener;
 import org.sunshine.core.cache.redisson.queue.DelayedQueueListenerConfigurer;
+import org.sunshine.core.cache.redisson.queue.DelayedQueueScheduler;
 import org.sunshine.core.cache.redisson.util.RedissonLockUtils;
+import org.sunshine.core.cache.support.scheduling.DistributedTaskCoordinator;
 import org.sunshine.core.tool.util.StringUtils;
 
 import java.util.List;
@@ -35,8 +37,11 @@ import java.util.List;
 public class RedissonAutoConfiguration {
     private final RedisProperties redisProperties;
 
-    public RedissonAutoConfiguration(RedisProperties redisProperties) {
+    private final RedissonProperties redissonProperties;
+
+    public RedissonAutoConfiguration(RedisProperties redisProperties, RedissonProperties redissonProperties) {
         this.redisProperties = redisProperties;
+        this.redissonProperties = redissonProperties;
     }
 
     /**
@@ -83,4 +88,17 @@ public class RedissonAutoConfiguration {
     public DelayedQueueListenerConfigurer delayedQueueListenerConfigurer(List<DelayedQueueListener<?>> delayedQueueListenerList, RedissonClient redissonClient) {
         return new DelayedQueueListenerConfigurer(delayedQueueListenerList, redissonClient);
     }
+
+    @Bean
+    @ConditionalOnMissingBean(DelayedQueueScheduler.class)
+    @ConditionalOnProperty(prefix = "spring.redis.redisson.timing-wheel", name = "instance-id")
+    public DelayedQueueScheduler delayedQueueScheduler(RedissonClient redissonClient) {
+        return new DelayedQueueScheduler(redissonClient, redissonProperties.getTimingWheel());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(DistributedTaskCoordinator.class)
+    public DistributedTaskCoordinator distributedTaskCoordinator(RedissonClient redissonClient) {
+        return new DistributedTaskCoordinator(redissonClient, redissonProperties.getScheduling());
+    }
 }
@@ -0,0 +1,428 @@
+package org.sunshine.core.cache.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 二级缓存配置
+ *
+ * @author Teamo
+ * @since 2024/8/12
+ */
+@ConfigurationProperties("spring.cache.custom")
+public class CustomCacheProperties {
+
+    /**
+     * 多节点本地缓存同步配置
+     */
+    private Sync sync = new Sync();
+
+    /**
+     * 多节点加载互斥配置
+     */
+    private DistributedLoad distributedLoad = new DistributedLoad();
+
+    /**
+     * 本地缓存默认最大条数
+     */
+    private long localMaximumSize = 10000L;
+
+    /**
+     * 本地缓存默认写入后过期时间
+     */
+    private Duration localExpireAfterWrite = Duration.ofSeconds(120L);
+
+    /**
+     * 远程缓存默认过期时间
+     */
+    private Duration remoteTtl = Duration.ofHours(2L);
+
+    /**
+     * 远程缓存默认序列化方式
+     */
+    private RedisSerializerType serializer = RedisSerializerType.FASTJSON;
+
+    /**
+     * 值压缩配置，同时作用于RedisTemplate及远程缓存
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * 后台刷新线程数
+     */
+    private int refreshThreads = 2;
+
+    /**
+     * 后台刷新任务队列容量，队列满时跳过本次刷新
+     */
+    private int refreshQueueCapacity = 1024;
+
+    /**
+     * 按缓存名称单独配置
+     */
+    private Map<String, CacheSpec> caches = new LinkedHashMap<>();
+
+    public Sync getSync() {
+        return sync;
+    }
+
+    public void setSync(Sync sync) {
+        this.sync = sync;
+    }
+
+    public DistributedLoad getDistributedLoad() {
+        return distributedLoad;
+    }
+
+    public void setDistributedLoad(DistributedLoad distributedLoad) {
+        this.distributedLoad = distributedLoad;
+    }
+
+    public long getLocalMaximumSize() {
+        return localMaximumSize;
+    }
+
+    public void setLocalMaximumSize(long localMaximumSize) {
+        this.localMaximumSize = localMaximumSize;
+    }
+
+    public Duration getLocalExpireAfterWrite() {
+        return localExpireAfterWrite;
+    }
+
+    public void setLocalExpireAfterWrite(Duration localExpireAfterWrite) {
+        this.localExpireAfterWrite = localExpireAfterWrite;
+    }
+
+    public Duration getRemoteTtl() {
+        return remoteTtl;
+    }
+
+    public void setRemoteTtl(Duration remoteTtl) {
+        this.remoteTtl = remoteTtl;
+    }
+
+    public RedisSerializerType getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(RedisSerializerType serializer) {
+        this.serializer = serializer;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    public int getRefreshThreads() {
+        return refreshThreads;
+    }
+
+    public void setRefreshThreads(int refreshThreads) {
+        this.refreshThreads = refreshThreads;
+    }
+
+    public int getRefreshQueueCapacity() {
+        return refreshQueueCapacity;
+    }
+
+    public void setRefreshQueueCapacity(int refreshQueueCapacity) {
+        this.refreshQueueCapacity = refreshQueueCapacity;
+    }
+
+    public Map<String, CacheSpec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, CacheSpec> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * 获取缓存配置
+     *
+     * @param name 缓存名称
+     * @return 未配置时返回默认配置
+     */
+    public CacheSpec getCacheSpec(String name) {
+        CacheSpec spec = caches.get(name);
+        return spec != null ? spec : new CacheSpec();
+    }
+
+    /**
+     * 是否有缓存开启了提前刷新
+     *
+     * @return boolean
+     */
+    public boolean isAnyRefreshEnabled() {
+        return caches.values().stream().anyMatch(CacheSpec::isRefreshEnabled);
+    }
+
+    public static class Sync {
+
+        /**
+         * 是否开启多节点本地缓存同步
+         */
+        private boolean enable = true;
+
+        /**
+         * 同步消息的Redis频道
+         */
+        private String topic = "cache:custom:sync";
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+    }
+
+    public static class DistributedLoad {
+
+        /**
+         * 是否开启多节点加载互斥，开启后同一key只有一个节点执行valueLoader，依赖Redisson
+         */
+        private boolean enable;
+
+        /**
+         * 获取锁的最长等待时间，超时后直接加载
+         */
+        private Duration waitTime = Duration.ofSeconds(3L);
+
+        /**
+         * 锁自动释放时间
+         */
+        private Duration leaseTime = Duration.ofSeconds(10L);
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+
+        public Duration getWaitTime() {
+            return waitTime;
+        }
+
+        public void setWaitTime(Duration waitTime) {
+            this.waitTime = waitTime;
+        }
+
+        public Duration getLeaseTime() {
+            return leaseTime;
+        }
+
+        public void setLeaseTime(Duration leaseTime) {
+            this.leaseTime = leaseTime;
+        }
+    }
+
+    public static class Compression {
+
+        /**
+         * 是否开启压缩，需引入lz4-java，开启或关闭后与已写入的数据不兼容
+         */
+        private boolean enable;
+
+        /**
+         * 压缩阈值，序列化后超过该大小时压缩
+         */
+        private DataSize threshold = DataSize.ofKilobytes(1L);
+
+        public boolean isEnable() {
+            return enable;
+        }
+
+        public void setEnable(boolean enable) {
+            this.enable = enable;
+        }
+
+        public DataSize getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
+        }
+    }
+
+    public static class CacheSpec {
+
+        /**
+         * 本地缓存最大条数，未配置时使用默认值
+         */
+        private Long localMaximumSize;
+
+        /**
+         * 本地缓存最大占用（按值序列化后的字节数估算），配置后忽略localMaximumSize
+         */
+        private DataSize localMaximumWeight;
+
+        /**
+         * 本地缓存写入后过期时间，未配置时使用默认值
+         */
+        private Duration localExpireAfterWrite;
+
+        /**
+         * 远程缓存过期时间，未配置时使用默认值
+         */
+        private Duration remoteTtl;
+
+        /**
+         * 是否缓存null值，默认缓存
+         */
+        private boolean cacheNullValues = true;
+
+        /**
+         * 远程缓存序列化方式，未配置时使用默认值
+         */
+        private RedisSerializerType serializer;
+
+        /**
+         * 写入后经过该时间需要刷新，为空时不开启提前刷新
+         */
+        private Duration refreshAfter;
+
+        /**
+         * 提前刷新窗口，在refreshAfter之前的该时间段内按距离到期的远近以递增的概率触发后台刷新，避免热点key集中到期
+         */
+        private Duration refreshWindow = Duration.ZERO;
+
+        /**
+         * 超过refreshAfter后仍可返回旧值的最长时间，期间由后台刷新，超过后同步加载
+         */
+        private Duration maxStale = Duration.ofMinutes(1L);
+
+        /**
+         * 等待其他线程加载同一key的最长时间，超时后抛出异常
+         */
+        private Duration loadTimeout = Duration.ofSeconds(30L);
+
+        /**
+         * 是否开启提前刷新
+         *
+         * @return boolean
+         */
+        public boolean isRefreshEnabled() {
+            return refreshAfter != null && !refreshAfter.isZero() && !refreshAfter.isNegative();
+        }
+
+        /**
+         * 是否单独配置了本地缓存
+         *
+         * @return boolean
+         */
+        public boolean hasLocalSpec() {
+            return localMaximumSize != null || localMaximumWeight != null || localExpireAfterWrite != null || !cacheNullValues;
+        }
+
+        /**
+         * 是否单独配置了远程缓存
+         *
+         * @return boolean
+         */
+        public boolean hasRemoteSpec() {
+            return remoteTtl != null || serializer != null || !cacheNullValues || isRefreshEnabled();
+        }
+
+        public Long getLocalMaximumSize() {
+            return localMaximumSize;
+        }
+
+        public void setLocalMaximumSize(Long localMaximumSize) {
+            this.localMaximumSize = localMaximumSize;
+        }
+
+        public DataSize getLocalMaximumWeight() {
+            return localMaximumWeight;
+        }
+
+        public void setLocalMaximumWeight(DataSize localMaximumWeight) {
+            this.localMaximumWeight = localMaximumWeight;
+        }
+
+        public Duration getLocalExpireAfterWrite() {
+            return localExpireAfterWrite;
+        }
+
+        public void setLocalExpireAfterWrite(Duration localExpireAfterWrite) {
+            this.localExpireAfterWrite = localExpireAfterWrite;
+        }
+
+        public Duration getRemoteTtl() {
+            return remoteTtl;
+        }
+
+        public void setRemoteTtl(Duration remoteTtl) {
+            this.remoteTtl = remoteTtl;
+        }
+
+        public boolean isCacheNullValues() {
+            return cacheNullValues;
+        }
+
+        public void setCacheNullValues(boolean cacheNullValues) {
+            this.cacheNullValues = cacheNullValues;
+        }
+
+        public RedisSerializerType getSerializer() {
+            return serializer;
+        }
+
+        public void setSerializer(RedisSerializerType serializer) {
+            this.serializer = serializer;
+        }
+
+        public Duration getRefreshAfter() {
+            return refreshAfter;
+        }
+
+        public void setRefreshAfter(Duration refreshAfter) {
+            this.refreshAfter = refreshAfter;
+        }
+
+        public Duration getRefreshWindow() {
+            return refreshWindow;
+        }
+
+        public void setRefreshWindow(Duration refreshWindow) {
+            this.refreshWindow = refreshWindow;
+        }
+
+        public Duration getMaxStale() {
+            return maxStale;
+        }
+
+        public void setMaxStale(Duration maxStale) {
+            this.maxStale = maxStale;
+        }
+
+        public Duration getLoadTimeout() {
+            return loadTimeout;
+        }
+
+        public void setLoadTimeout(Duration loadTimeout) {
+            this.loadTimeout = loadTimeout;
+        }
+    }
+}
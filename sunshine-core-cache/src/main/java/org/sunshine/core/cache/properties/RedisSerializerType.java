@@ -0,0 +1,30 @@
+package org.sunshine.core.cache.properties;
+
+/**
+ * Redis值序列化方式
+ *
+ * @author Teamo
+ * @since 2024/8/15
+ */
+public enum RedisSerializerType {
+
+    /**
+     * FastJson，写入类名
+     */
+    FASTJSON,
+
+    /**
+     * FastJson二进制格式（JSONB），写入类名但不写入null字段，体积更小
+     */
+    JSONB,
+
+    /**
+     * Jackson，写入类型信息
+     */
+    JACKSON,
+
+    /**
+     * JDK序列化
+     */
+    JDK
+}
@@ -0,0 +1,217 @@
+package org.sunshine.core.cache.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Redis Stream消息队列配置
+ *
+ * @author Teamo
+ * @since 2024/8/21
+ */
+@ConfigurationProperties("spring.redis.stream")
+public class RedisStreamProperties {
+
+    /**
+     * 写入时按MAXLEN裁剪的默认保留数量，小于等于0时不裁剪
+     */
+    private long maxLen = 0L;
+
+    /**
+     * 按stream key单独配置保留数量
+     */
+    private Map<String, Long> streamMaxLen = new LinkedHashMap<>();
+
+    /**
+     * 是否使用近似裁剪（MAXLEN ~），近似裁剪按宏节点删除，开销远小于精确裁剪
+     */
+    private boolean approximateTrimming = true;
+
+    /**
+     * 异步发送配置
+     */
+    private Async async = new Async();
+
+    /**
+     * pending消息处理配置
+     */
+    private Pending pending = new Pending();
+
+    public long getMaxLen() {
+        return maxLen;
+    }
+
+    public void setMaxLen(long maxLen) {
+        this.maxLen = maxLen;
+    }
+
+    public Map<String, Long> getStreamMaxLen() {
+        return streamMaxLen;
+    }
+
+    public void setStreamMaxLen(Map<String, Long> streamMaxLen) {
+        this.streamMaxLen = streamMaxLen;
+    }
+
+    public boolean isApproximateTrimming() {
+        return approximateTrimming;
+    }
+
+    public void setApproximateTrimming(boolean approximateTrimming) {
+        this.approximateTrimming = approximateTrimming;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+
+    public Pending getPending() {
+        return pending;
+    }
+
+    public void setPending(Pending pending) {
+        this.pending = pending;
+    }
+
+    /**
+     * 获取stream的保留数量
+     *
+     * @param streamKey stream key
+     * @return 保留数量，小于等于0时不裁剪
+     */
+    public long getMaxLen(String streamKey) {
+        Long streamMaxLen = this.streamMaxLen.get(streamKey);
+        return streamMaxLen == null ? maxLen : streamMaxLen;
+    }
+
+    public static class Async {
+
+        /**
+         * 缓冲队列容量，队列满时丢弃新消息
+         */
+        private int capacity = 10000;
+
+        /**
+         * 每批发送的最大消息数
+         */
+        private int batchSize = 500;
+
+        /**
+         * 未凑满一批时的最长等待时间
+         */
+        private Duration flushInterval = Duration.ofMillis(100L);
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    public static class Pending {
+
+        /**
+         * 消息投递后超过该时间仍未确认时重新投递，本节点排队或处理中的消息除外，
+         * 需大于消息在其他节点排队及处理的最长时间
+         */
+        private Duration minIdle = Duration.ofSeconds(30L);
+
+        /**
+         * 每次XAUTOCLAIM转移的最大消息数
+         */
+        private int pageSize = 100;
+
+        /**
+         * 每个stream每次最多处理的页数，剩余消息在下次处理
+         */
+        private int maxPages = 100;
+
+        /**
+         * 投递次数超过该值后转入死信stream，小于等于0时不转入
+         */
+        private int maxDeliveries = 5;
+
+        /**
+         * 死信stream的后缀，原stream key已包含hash tag时死信stream key为原stream key加后缀，否则为{原stream key}加后缀
+         */
+        private String deadLetterSuffix = ":dead-letter";
+
+        /**
+         * 同时处理的stream数量
+         */
+        private int parallelism = 4;
+
+        public Duration getMinIdle() {
+            return minIdle;
+        }
+
+        public void setMinIdle(Duration minIdle) {
+            this.minIdle = minIdle;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getMaxPages() {
+            return maxPages;
+        }
+
+        public void setMaxPages(int maxPages) {
+            this.maxPages = maxPages;
+        }
+
+        public int getMaxDeliveries() {
+            return maxDeliveries;
+        }
+
+        public void setMaxDeliveries(int maxDeliveries) {
+            this.maxDeliveries = maxDeliveries;
+        }
+
+        public String getDeadLetterSuffix() {
+            return deadLetterSuffix;
+        }
+
+        public void setDeadLetterSuffix(String deadLetterSuffix) {
+            this.deadLetterSuffix = deadLetterSuffix;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.sunshine.core.cache.properties;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * @author Teamo
  * @since 2022/01/07
@@ -14,6 +16,16 @@ public class RedissonProperties {
      */
     private boolean enable;
 
+    /**
+     * 本地时间轮配置
+     */
+    private TimingWheel timingWheel = new TimingWheel();
+
+    /**
+     * 分布式任务选主及分片配置
+     */
+    private Scheduling scheduling = new Scheduling();
+
     public boolean isEnable() {
         return enable;
     }
@@ -21,4 +33,156 @@ public class RedissonProperties {
     public void setEnable(boolean enable) {
         this.enable = enable;
     }
+
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    public void setTimingWheel(TimingWheel timingWheel) {
+        this.timingWheel = timingWheel;
+    }
+
+    public Scheduling getScheduling() {
+        return scheduling;
+    }
+
+    public void setScheduling(Scheduling scheduling) {
+        this.scheduling = scheduling;
+    }
+
+    public static class TimingWheel {
+
+        /**
+         * 延迟小于该值的消息使用本地时间轮调度，否则使用Redisson延迟队列
+         */
+        private Duration threshold = Duration.ofMinutes(5L);
+
+        /**
+         * 时间轮每格的时间
+         */
+        private Duration tickDuration = Duration.ofMillis(100L);
+
+        /**
+         * 时间轮格数
+         */
+        private int ticksPerWheel = 512;
+
+        /**
+         * 检查点写入Redis的间隔
+         */
+        private Duration checkpointInterval = Duration.ofSeconds(1L);
+
+        /**
+         * 检查点key前缀，完整key为前缀加实例ID
+         */
+        private String checkpointKey = "delayed:timing-wheel:";
+
+        /**
+         * 实例ID，必须在所有实例中唯一且重启后保持不变（如StatefulSet的Pod名称），用于隔离及恢复检查点，未配置时不创建{@link org.sunshine.core.cache.redisson.queue.DelayedQueueScheduler}
+         */
+        private String instanceId;
+
+        public Duration getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(Duration threshold) {
+            this.threshold = threshold;
+        }
+
+        public Duration getTickDuration() {
+            return tickDuration;
+        }
+
+        public void setTickDuration(Duration tickDuration) {
+            this.tickDuration = tickDuration;
+        }
+
+        public int getTicksPerWheel() {
+            return ticksPerWheel;
+        }
+
+        public void setTicksPerWheel(int ticksPerWheel) {
+            this.ticksPerWheel = ticksPerWheel;
+        }
+
+        public Duration getCheckpointInterval() {
+            return checkpointInterval;
+        }
+
+        public void setCheckpointInterval(Duration checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
+        }
+
+        public String getCheckpointKey() {
+            return checkpointKey;
+        }
+
+        public void setCheckpointKey(String checkpointKey) {
+            this.checkpointKey = checkpointKey;
+        }
+
+        public String getInstanceId() {
+            return instanceId;
+        }
+
+        public void setInstanceId(String instanceId) {
+            this.instanceId = instanceId;
+        }
+    }
+
+    public static class Scheduling {
+
+        /**
+         * 主节点租期及节点存活超时时间，超过该时间未续期的主节点或节点视为下线
+         */
+        private Duration leaseTime = Duration.ofSeconds(30L);
+
+        /**
+         * 续期及上报心跳的间隔，应小于租期的一半
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(10L);
+
+        /**
+         * key前缀
+         */
+        private String keyPrefix = "scheduling:";
+
+        /**
+         * 实例ID，同一任务的节点之间须唯一，默认为本机IP加进程号
+         */
+        private String instanceId;
+
+        public Duration getLeaseTime() {
+            return leaseTime;
+        }
+
+        public void setLeaseTime(Duration leaseTime) {
+            this.leaseTime = leaseTime;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public String getInstanceId() {
+            return instanceId;
+        }
+
+        public void setInstanceId(String instanceId) {
+            this.instanceId = instanceId;
+        }
+    }
 }
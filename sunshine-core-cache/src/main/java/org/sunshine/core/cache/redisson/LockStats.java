@@ -0,0 +1,139 @@
+package org.sunshine.core.cache.redisson;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分布式锁统计
+ *
+ * @author Teamo
+ * @since 2024/8/26
+ */
+public class LockStats {
+
+    /**
+     * 获取锁耗时分布的上界(毫秒)，最后一个区间为超过最大上界
+     */
+    private static final long[] LATENCY_BOUNDS = {1L, 5L, 10L, 50L, 100L, 500L, 1000L, 5000L};
+
+    /**
+     * 获取成功的次数
+     */
+    private final LongAdder acquiredCount = new LongAdder();
+
+    /**
+     * 等待超时未获取到的次数
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * 锁已被占用、需要等待的次数
+     */
+    private final LongAdder contentionCount = new LongAdder();
+
+    /**
+     * 持有时间超过租期、锁已自动释放的次数
+     */
+    private final LongAdder leaseOverrunCount = new LongAdder();
+
+    /**
+     * 获取锁的总耗时(纳秒)
+     */
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    /**
+     * 获取锁的最大耗时(纳秒)
+     */
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0L);
+
+    private final LongAdder[] latencyBuckets = new LongAdder[LATENCY_BOUNDS.length + 1];
+
+    public LockStats() {
+        for (int i = 0; i < latencyBuckets.length; i++) {
+            latencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次获取锁
+     *
+     * @param waitNanos 耗时
+     * @param contended 锁是否已被占用
+     * @param acquired  是否获取成功
+     */
+    public void recordAcquire(long waitNanos, boolean contended, boolean acquired) {
+        if (acquired) {
+            acquiredCount.increment();
+        } else {
+            failedCount.increment();
+        }
+        if (contended) {
+            contentionCount.increment();
+        }
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        int bucket = 0;
+        while (bucket < LATENCY_BOUNDS.length && waitMillis > LATENCY_BOUNDS[bucket]) {
+            bucket++;
+        }
+        latencyBuckets[bucket].increment();
+    }
+
+    public void recordLeaseOverrun() {
+        leaseOverrunCount.increment();
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getContentionCount() {
+        return contentionCount.sum();
+    }
+
+    public long getLeaseOverrunCount() {
+        return leaseOverrunCount.sum();
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum());
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    /**
+     * 获取锁耗时分布
+     *
+     * @return 区间上界(毫秒，Long.MAX_VALUE表示超过最大上界) -> 次数
+     */
+    public Map<Long, Long> getLatencyHistogram() {
+        Map<Long, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < latencyBuckets.length; i++) {
+            histogram.put(i < LATENCY_BOUNDS.length ? LATENCY_BOUNDS[i] : Long.MAX_VALUE, latencyBuckets[i].sum());
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "LockStats{" +
+                "acquiredCount=" + getAcquiredCount() +
+                ", failedCount=" + getFailedCount() +
+                ", contentionCount=" + getContentionCount() +
+                ", leaseOverrunCount=" + getLeaseOverrunCount() +
+                ", totalWaitMillis=" + getTotalWaitMillis() +
+                ", maxWaitMillis=" + getMaxWaitMillis() +
+                ", latencyHistogram=" + getLatencyHistogram() +
+                '}';
+    }
+}
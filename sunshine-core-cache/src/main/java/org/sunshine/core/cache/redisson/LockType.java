@@ -0,0 +1,31 @@
+package org.sunshine.core.cache.redisson;
+
+/**
+ * 分布式锁类型
+ *
+ * @author Teamo
+ * @since 2024/8/27
+ */
+public enum LockType {
+
+    /**
+     * 可重入锁
+     */
+    REENTRANT,
+
+    /**
+     * 可重入锁，获取时在同一Lua脚本中递增Redis计数器并返回fencing token，
+     * 写入存储时携带token，存储端拒绝小于已写入token的请求，避免租期过期后两个节点同时写入
+     */
+    FENCED,
+
+    /**
+     * 读锁，多个读锁之间不互斥
+     */
+    READ,
+
+    /**
+     * 写锁，与读锁及其他写锁互斥
+     */
+    WRITE
+}
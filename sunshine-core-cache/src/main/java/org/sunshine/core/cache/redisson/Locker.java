@@ -1,5 +1,8 @@
 package org.sunshine.core.cache.redisson;
 
+import org.redisson.api.RLock;
+
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -74,4 +77,42 @@ public interface Locker {
      * @return 是否持有
      */
     boolean isHeldByCurrentThread(String lockKey);
+
+    /**
+     * 获取锁对象
+     *
+     * @param lockKey 锁名称
+     * @param type    锁类型
+     * @return {@link RLock}，类型为FENCED时为{@link org.redisson.api.RFencedLock}
+     */
+    RLock getLock(String lockKey, LockType type);
+
+    /**
+     * 获取同时锁定多个名称的锁对象，所有锁都获取成功才算成功
+     *
+     * @param lockKeys 锁名称
+     * @param type     锁类型，不支持FENCED
+     * @return {@link RLock}
+     */
+    RLock getMultiLock(Collection<String> lockKeys, LockType type);
+
+    /**
+     * 获取fencing锁并返回token，如果锁不可用，则当前线程处于休眠状态，直到获得锁为止。使用{@link #unlock(String)}释放
+     *
+     * @param lockKey 锁名称
+     * @return 单调递增的token
+     */
+    Long lockAndGetToken(String lockKey);
+
+    /**
+     * 尝试获取fencing锁并返回token
+     *
+     * @param lockKey   锁名称
+     * @param waitTime  等待时长
+     * @param leaseTime 超时时长
+     * @param unit      时间单位
+     * @return 单调递增的token，未获取到时为null
+     * @throws InterruptedException InterruptedException
+     */
+    Long tryLockAndGetToken(String lockKey, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException;
 }
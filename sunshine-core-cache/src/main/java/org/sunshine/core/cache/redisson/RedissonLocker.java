@@ -1,8 +1,13 @@
 package org.sunshine.core.cache.redisson;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.redisson.api.RFencedLock;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -11,8 +16,21 @@ import java.util.concurrent.TimeUnit;
  */
 public class RedissonLocker implements Locker {
 
+    /**
+     * 缓存的锁对象最大数量
+     */
+    private static final long MAX_LOCKS = 10000L;
+
     private RedissonClient redissonClient;
 
+    /**
+     * 锁对象与线程无关，可复用，避免每次调用都创建
+     */
+    private final Cache<String, RLock> locks = Caffeine.newBuilder()
+            .maximumSize(MAX_LOCKS)
+            .expireAfterAccess(Duration.ofMinutes(10L))
+            .build();
+
     public RedissonLocker(RedissonClient redissonClient) {
         super();
         this.redissonClient = redissonClient;
@@ -20,53 +38,97 @@ public class RedissonLocker implements Locker {
 
     public void setRedissonClient(RedissonClient redissonClient) {
         this.redissonClient = redissonClient;
+        this.locks.invalidateAll();
     }
 
     @Override
     public void lock(String lockKey) {
-        RLock lock = redissonClient.getLock(lockKey);
+        RLock lock = getLock(lockKey);
         lock.lock();
     }
 
     @Override
     public void unlock(String lockKey) {
-        RLock lock = redissonClient.getLock(lockKey);
+        RLock lock = getLock(lockKey);
         lock.unlock();
     }
 
     @Override
     public void lock(String lockKey, int timeout) {
-        RLock lock = redissonClient.getLock(lockKey);
+        RLock lock = getLock(lockKey);
         lock.lock(timeout, TimeUnit.SECONDS);
     }
 
     @Override
     public void lock(String lockKey, int timeout, TimeUnit unit) {
-        RLock lock = redissonClient.getLock(lockKey);
+        RLock lock = getLock(lockKey);
         lock.lock(timeout, unit);
     }
 
     @Override
     public boolean tryLock(String lockKey) {
-        RLock lock = redissonClient.getLock(lockKey);
+        RLock lock = getLock(lockKey);
         return lock.tryLock();
     }
 
     @Override
     public boolean tryLock(String lockKey, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
-        RLock lock = redissonClient.getLock(lockKey);
+        RLock lock = getLock(lockKey);
         return lock.tryLock(waitTime, leaseTime, unit);
     }
 
     @Override
     public boolean isLocked(String lockKey) {
-        RLock lock = redissonClient.getLock(lockKey);
+        RLock lock = getLock(lockKey);
         return lock.isLocked();
     }
 
     @Override
     public boolean isHeldByCurrentThread(String lockKey) {
-        RLock lock = redissonClient.getLock(lockKey);
+        RLock lock = getLock(lockKey);
         return lock.isHeldByCurrentThread();
     }
+
+    @Override
+    public RLock getLock(String lockKey, LockType type) {
+        if (type == LockType.REENTRANT) {
+            return getLock(lockKey);
+        }
+        return locks.get(type.name() + ":" + lockKey, key -> createLock(lockKey, type));
+    }
+
+    @Override
+    public RLock getMultiLock(Collection<String> lockKeys, LockType type) {
+        if (type == LockType.FENCED) {
+            throw new IllegalArgumentException("Fenced lock does not support multiple lock keys");
+        }
+        return redissonClient.getMultiLock(lockKeys.stream().map(lockKey -> getLock(lockKey, type)).toArray(RLock[]::new));
+    }
+
+    @Override
+    public Long lockAndGetToken(String lockKey) {
+        return ((RFencedLock) getLock(lockKey, LockType.FENCED)).lockAndGetToken();
+    }
+
+    @Override
+    public Long tryLockAndGetToken(String lockKey, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return ((RFencedLock) getLock(lockKey, LockType.FENCED)).tryLockAndGetToken(waitTime, leaseTime, unit);
+    }
+
+    private RLock getLock(String lockKey) {
+        return locks.get(lockKey, redissonClient::getLock);
+    }
+
+    private RLock createLock(String lockKey, LockType type) {
+        switch (type) {
+            case FENCED:
+                return redissonClient.getFencedLock(lockKey);
+            case READ:
+                return redissonClient.getReadWriteLock(lockKey).readLock();
+            case WRITE:
+                return redissonClient.getReadWriteLock(lockKey).writeLock();
+            default:
+                return redissonClient.getLock(lockKey);
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package org.sunshine.core.cache.redisson.queue;
 
+import java.time.Duration;
+
 /**
  * @author Teamo
  * @since 2022/11/09
@@ -35,4 +37,49 @@ public interface DelayedQueueListener<T> {
      */
     default void whenExceptionFinally() {
     }
+
+    /**
+     * 消费线程数
+     *
+     * @return int
+     */
+    default int concurrency() {
+        return 1;
+    }
+
+    /**
+     * 每次从队列中最多取出的消息数
+     *
+     * @return int
+     */
+    default int batchSize() {
+        return 1;
+    }
+
+    /**
+     * 消费失败后的最大重试次数，为0时不重试
+     *
+     * @return int
+     */
+    default int maxRetries() {
+        return 0;
+    }
+
+    /**
+     * 首次重试的延迟时间，之后每次翻倍
+     *
+     * @return Duration
+     */
+    default Duration retryBackoff() {
+        return Duration.ofSeconds(1L);
+    }
+
+    /**
+     * 死信队列键，重试次数用完后消息放入该队列
+     *
+     * @return String
+     */
+    default String deadLetterQueueKey() {
+        return delayedQueueKey() + ":dead-letter";
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
@@ -24,6 +25,8 @@ public class DelayedQueueListenerConfigurer implements InitializingBean, Disposa
 
     private final RedissonClient redissonClient;
 
+    private final List<DelayedQueuePollTask<?>> pollTasks = new ArrayList<>();
+
     public DelayedQueueListenerConfigurer(List<DelayedQueueListener<?>> delayedQueueListenerList, RedissonClient redissonClient) {
         this.delayedQueueListenerList = delayedQueueListenerList;
         this.redissonClient = redissonClient;
@@ -31,8 +34,14 @@ public class DelayedQueueListenerConfigurer implements InitializingBean, Disposa
 
     @Override
     public void destroy() throws Exception {
+        // 先停止拉取，拉取线程退出后再关闭消费线程，避免拉取线程分发时被拒绝
+        pollTasks.forEach(DelayedQueuePollTask::stop);
+        // 不中断拉取线程，中断时已取出的消息可能丢失
         if (delayedThreadPoolExecutor != null) {
-            delayedThreadPoolExecutor.shutdownNow();
+            delayedThreadPoolExecutor.shutdown();
+        }
+        for (DelayedQueuePollTask<?> pollTask : pollTasks) {
+            pollTask.awaitTermination();
         }
     }
 
@@ -50,6 +59,10 @@ public class DelayedQueueListenerConfigurer implements InitializingBean, Disposa
                 new LinkedBlockingQueue<>(numberOfJob),
                 namedThreadFactory
         );
-        delayedQueueListenerList.forEach(delayedQueueListener -> delayedThreadPoolExecutor.execute(new DelayedQueuePollTask<>(redissonClient, delayedQueueListener)));
+        delayedQueueListenerList.forEach(delayedQueueListener -> {
+            DelayedQueuePollTask<?> pollTask = new DelayedQueuePollTask<>(redissonClient, delayedQueueListener);
+            pollTasks.add(pollTask);
+            delayedThreadPoolExecutor.execute(pollTask);
+        });
     }
 }
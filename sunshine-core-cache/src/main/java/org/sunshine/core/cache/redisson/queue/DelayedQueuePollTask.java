@@ -1,11 +1,22 @@
 package org.sunshine.core.cache.redisson.queue;
 
 import org.redisson.api.RBlockingDeque;
+import org.redisson.api.RDelayedQueue;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * 拉取线程从队列中批量取出消息，交给消费线程处理，消费线程都在忙时暂停拉取
+ *
  * @author Teamo
  * @since 2024/3/11
  */
@@ -13,36 +24,173 @@ class DelayedQueuePollTask<T> implements Runnable {
 
     private final static Logger log = LoggerFactory.getLogger(DelayedQueuePollTask.class);
 
+    /**
+     * 拉取等待时间，停止时最多等待该时间后退出
+     */
+    private final static long POLL_TIMEOUT_MILLIS = 1000L;
+
+    /**
+     * 停止时等待拉取线程退出的最长时间
+     */
+    private final static long JOIN_TIMEOUT_SECONDS = 60L;
+
     private final RedissonClient redissonClient;
 
     private final DelayedQueueListener<T> delayedQueueListener;
 
+    private final Semaphore permits;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private RDelayedQueue<Object> delayedQueue;
+
+    private volatile boolean running = true;
+
+    /**
+     * 拉取线程退出后计数
+     */
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
     public DelayedQueuePollTask(RedissonClient redissonClient, DelayedQueueListener<T> delayedQueueListener) {
         this.redissonClient = redissonClient;
         this.delayedQueueListener = delayedQueueListener;
+        this.permits = new Semaphore(Math.max(1, delayedQueueListener.concurrency()));
     }
 
     @Override
     public void run() {
+        try {
+            poll();
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    private void poll() {
         String threadName = "delayed-queue-listener-" + delayedQueueListener.getClass().getSimpleName();
         Thread.currentThread().setName(threadName);
         if (!delayedQueueListener.isEnable()) {
             return;
         }
-        RBlockingDeque<T> blockingDeque = redissonClient.getBlockingDeque(delayedQueueListener.delayedQueueKey());
+        RBlockingDeque<Object> blockingDeque = redissonClient.getBlockingDeque(delayedQueueListener.delayedQueueKey());
         // 解决消息丢失问题，发送subscribe命令订阅redis队列
-        redissonClient.getDelayedQueue(blockingDeque);
-        while (!Thread.currentThread().isInterrupted()) {
+        delayedQueue = redissonClient.getDelayedQueue(blockingDeque);
+        executor = getExecutor();
+        int batchSize = Math.max(1, delayedQueueListener.batchSize());
+        while (running && !Thread.currentThread().isInterrupted()) {
             try {
-                T message = blockingDeque.take();
-                delayedQueueListener.consume(message);
+                Object first = blockingDeque.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Object> messages = new ArrayList<>(batchSize);
+                messages.add(first);
+                if (batchSize > 1) {
+                    messages.addAll(blockingDeque.poll(batchSize - 1));
+                }
+                dispatch(blockingDeque, messages);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             } catch (Exception e) {
                 log.error(e.getMessage(), e);
-            } finally {
-                delayedQueueListener.whenExceptionFinally();
             }
         }
     }
+
+    /**
+     * 停止拉取，拉取线程在本次等待结束后退出
+     */
+    void stop() {
+        running = false;
+    }
+
+    /**
+     * 等待拉取线程退出后，等待已取出的消息消费完成
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    void awaitTermination() throws InterruptedException {
+        if (!terminated.await(JOIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Poll thread did not stop in {}s, queue: {}", JOIN_TIMEOUT_SECONDS, delayedQueueListener.delayedQueueKey());
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 已取出的消息全部交给消费线程，消费线程已关闭时未分发的消息按原顺序放回队列头部
+     *
+     * @param blockingDeque 队列
+     * @param messages      已取出的消息
+     */
+    private void dispatch(RBlockingDeque<Object> blockingDeque, List<Object> messages) {
+        for (int i = 0; i < messages.size(); i++) {
+            Object message = messages.get(i);
+            permits.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        consume(message);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                permits.release();
+                List<Object> rejected = messages.subList(i, messages.size());
+                for (int j = rejected.size() - 1; j >= 0; j--) {
+                    blockingDeque.offerFirst(rejected.get(j));
+                }
+                log.warn("Consumer executor rejected messages, returned {} to queue: {}", rejected.size(),
+                        delayedQueueListener.delayedQueueKey());
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void consume(Object message) {
+        int retries = 0;
+        Object payload = message;
+        if (message instanceof DelayedQueueRetryMessage) {
+            DelayedQueueRetryMessage retryMessage = (DelayedQueueRetryMessage) message;
+            retries = retryMessage.getRetries();
+            payload = retryMessage.getMessage();
+        }
+        try {
+            delayedQueueListener.consume((T) payload);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            retryOrDeadLetter(payload, retries);
+        } finally {
+            delayedQueueListener.whenExceptionFinally();
+        }
+    }
+
+    private void retryOrDeadLetter(Object payload, int retries) {
+        try {
+            if (retries < delayedQueueListener.maxRetries()) {
+                // 指数退避，重新放入延迟队列
+                long backoff = delayedQueueListener.retryBackoff().toMillis() << Math.min(retries, 20);
+                delayedQueue.offer(new DelayedQueueRetryMessage(payload, retries + 1), backoff, TimeUnit.MILLISECONDS);
+            } else if (delayedQueueListener.maxRetries() > 0) {
+                redissonClient.getDeque(delayedQueueListener.deadLetterQueueKey()).add(payload);
+            }
+        } catch (Exception e) {
+            log.error("Failed to retry delayed queue message, queue: {}", delayedQueueListener.delayedQueueKey(), e);
+        }
+    }
+
+    private ThreadPoolTaskExecutor getExecutor() {
+        int concurrency = Math.max(1, delayedQueueListener.concurrency());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.setThreadNamePrefix("delayed-queue-" + delayedQueueListener.getClass().getSimpleName() + "-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -0,0 +1,42 @@
+package org.sunshine.core.cache.redisson.queue;
+
+import java.io.Serializable;
+
+/**
+ * 重试的消息，记录已重试次数
+ *
+ * @author Teamo
+ * @since 2024/8/24
+ */
+public class DelayedQueueRetryMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Object message;
+
+    private int retries;
+
+    public DelayedQueueRetryMessage() {
+    }
+
+    public DelayedQueueRetryMessage(Object message, int retries) {
+        this.message = message;
+        this.retries = retries;
+    }
+
+    public Object getMessage() {
+        return message;
+    }
+
+    public void setMessage(Object message) {
+        this.message = message;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+}
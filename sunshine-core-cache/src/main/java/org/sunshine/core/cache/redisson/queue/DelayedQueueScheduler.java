@@ -0,0 +1,238 @@
+package org.sunshine.core.cache.redisson.queue;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBlockingDeque;
+import org.redisson.api.RDelayedQueue;
+import org.redisson.api.RMap;
+import org.redisson.api.RMapAsync;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+import org.sunshine.core.cache.properties.RedissonProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 延迟消息调度，延迟较短的消息使用本地时间轮调度，到期后放入{@link DelayedQueueListener}监听的队列，
+ * 只将新增及到期的消息按间隔批量写入Redis检查点，重启后恢复；延迟较长的消息使用Redisson延迟队列
+ *
+ * @author Teamo
+ * @since 2024/8/25
+ */
+public class DelayedQueueScheduler implements InitializingBean, DisposableBean {
+
+    private final static Logger log = LoggerFactory.getLogger(DelayedQueueScheduler.class);
+
+    /**
+     * 放入队列失败后的重试间隔
+     */
+    private final static long RETRY_DELAY_MILLIS = 1000L;
+
+    private final RedissonClient redissonClient;
+
+    private final RedissonProperties.TimingWheel properties;
+
+    private final Map<String, RDelayedQueue<Object>> delayedQueues = new ConcurrentHashMap<>();
+
+    /**
+     * 未写入检查点的新增消息
+     */
+    private final Map<String, TimingWheelEntry> unsavedEntries = new ConcurrentHashMap<>();
+
+    /**
+     * 已到期、待从检查点删除的消息ID
+     */
+    private final Queue<String> expiredIds = new ConcurrentLinkedQueue<>();
+
+    /**
+     * ID前缀，区分重启前后生成的ID
+     */
+    private final String idPrefix = Long.toString(System.currentTimeMillis(), 36) + "-";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private HashedWheelTimer timer;
+
+    private ThreadPoolTaskScheduler checkpointScheduler;
+
+    private RMap<String, TimingWheelEntry> checkpoint;
+
+    public DelayedQueueScheduler(RedissonClient redissonClient, RedissonProperties.TimingWheel properties) {
+        // 检查点按实例ID隔离，ID重复时会互相覆盖，ID变化时无法恢复重启前的消息
+        Assert.hasText(properties.getInstanceId(), "spring.redis.redisson.timing-wheel.instance-id must be set to a unique and stable id per instance");
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        timer = new HashedWheelTimer(new ThreadFactoryBuilder().setNameFormat("delayed-timing-wheel-%d").setDaemon(true).build(),
+                properties.getTickDuration().toMillis(), TimeUnit.MILLISECONDS, properties.getTicksPerWheel());
+        checkpoint = redissonClient.getMap(properties.getCheckpointKey() + properties.getInstanceId());
+        recover();
+
+        checkpointScheduler = new ThreadPoolTaskScheduler();
+        checkpointScheduler.setPoolSize(1);
+        checkpointScheduler.setThreadNamePrefix("delayed-timing-wheel-checkpoint-");
+        checkpointScheduler.initialize();
+        checkpointScheduler.scheduleWithFixedDelay(this::saveCheckpoint, properties.getCheckpointInterval());
+    }
+
+    @Override
+    public void destroy() {
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdown();
+        }
+        if (timer != null) {
+            // 未到期的消息保留在检查点中，重启后恢复
+            timer.stop();
+        }
+        saveCheckpoint();
+    }
+
+    /**
+     * 发送延迟消息
+     *
+     * @param queueKey 队列键，与{@link DelayedQueueListener#delayedQueueKey()}一致
+     * @param message  消息
+     * @param delay    延迟时间
+     * @param unit     时间单位
+     */
+    public void offer(String queueKey, Object message, long delay, TimeUnit unit) {
+        long delayMillis = unit.toMillis(delay);
+        if (delayMillis >= properties.getThreshold().toMillis()) {
+            getDelayedQueue(queueKey).offer(message, delayMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        String id = idPrefix + Long.toString(sequence.incrementAndGet(), 36);
+        TimingWheelEntry entry = new TimingWheelEntry(id, queueKey, System.currentTimeMillis() + delayMillis, message);
+        unsavedEntries.put(id, entry);
+        schedule(entry, delayMillis);
+    }
+
+    /**
+     * 时间轮中未到期的消息数
+     *
+     * @return long
+     */
+    public long pendingCount() {
+        return timer.pendingTimeouts();
+    }
+
+    private void schedule(TimingWheelEntry entry, long delayMillis) {
+        timer.newTimeout(timeout -> deliver(entry), Math.max(delayMillis, 0L), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 到期后放入队列，时间轮线程中只发起异步写入，不等待结果
+     *
+     * @param entry 消息
+     */
+    private void deliver(TimingWheelEntry entry) {
+        RBlockingDeque<Object> deque = redissonClient.getBlockingDeque(entry.getQueueKey());
+        deque.addAsync(entry.getMessage()).whenComplete((added, throwable) -> {
+            if (throwable != null) {
+                log.error("Failed to deliver delayed message, queue: {}", entry.getQueueKey(), throwable);
+                retry(entry);
+                return;
+            }
+            if (unsavedEntries.remove(entry.getId()) == null) {
+                // 已写入检查点
+                expiredIds.add(entry.getId());
+            }
+        });
+    }
+
+    private void retry(TimingWheelEntry entry) {
+        if (timer == null) {
+            return;
+        }
+        try {
+            schedule(entry, RETRY_DELAY_MILLIS);
+        } catch (IllegalStateException e) {
+            // 已停止，消息保留在检查点中
+            log.warn("Timing wheel stopped, delayed message will be recovered after restart, queue: {}", entry.getQueueKey());
+        }
+    }
+
+    /**
+     * 将新增及到期的消息批量写入检查点
+     */
+    private void saveCheckpoint() {
+        Map<String, TimingWheelEntry> entries = new HashMap<>();
+        for (String id : unsavedEntries.keySet()) {
+            TimingWheelEntry entry = unsavedEntries.remove(id);
+            if (entry != null) {
+                entries.put(id, entry);
+            }
+        }
+        List<String> ids = new ArrayList<>();
+        for (String id = expiredIds.poll(); id != null; id = expiredIds.poll()) {
+            ids.add(id);
+        }
+        if (entries.isEmpty() && ids.isEmpty()) {
+            return;
+        }
+        try {
+            RBatch batch = redissonClient.createBatch();
+            RMapAsync<String, TimingWheelEntry> map = batch.getMap(checkpoint.getName());
+            if (!entries.isEmpty()) {
+                map.putAllAsync(entries);
+            }
+            if (!ids.isEmpty()) {
+                map.fastRemoveAsync(ids.toArray(new String[0]));
+            }
+            batch.execute();
+        } catch (Exception e) {
+            log.error("Failed to save timing wheel checkpoint", e);
+            // 下次写入时重试，期间到期的消息会在检查点中残留，重启后重复投递
+            entries.forEach(unsavedEntries::putIfAbsent);
+            expiredIds.addAll(ids);
+        }
+    }
+
+    /**
+     * 恢复检查点中的消息，已到期的立即投递，仍超过阈值的转入Redisson延迟队列
+     */
+    private void recover() {
+        Map<String, TimingWheelEntry> entries = checkpoint.readAllMap();
+        if (entries.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long threshold = properties.getThreshold().toMillis();
+        List<String> movedIds = new ArrayList<>();
+        entries.values().forEach(entry -> {
+            long remaining = entry.getDeadline() - now;
+            if (remaining >= threshold) {
+                getDelayedQueue(entry.getQueueKey()).offer(entry.getMessage(), remaining, TimeUnit.MILLISECONDS);
+                movedIds.add(entry.getId());
+            } else {
+                schedule(entry, remaining);
+            }
+        });
+        if (!movedIds.isEmpty()) {
+            checkpoint.fastRemove(movedIds.toArray(new String[0]));
+        }
+        log.info("Recovered {} delayed messages from timing wheel checkpoint", entries.size());
+    }
+
+    private RDelayedQueue<Object> getDelayedQueue(String queueKey) {
+        return delayedQueues.computeIfAbsent(queueKey, key -> redissonClient.getDelayedQueue(redissonClient.getBlockingDeque(key)));
+    }
+}
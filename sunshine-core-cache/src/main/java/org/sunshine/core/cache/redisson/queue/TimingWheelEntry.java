@@ -0,0 +1,67 @@
+package org.sunshine.core.cache.redisson.queue;
+
+import java.io.Serializable;
+
+/**
+ * 时间轮中的消息，写入检查点用于重启后恢复
+ *
+ * @author Teamo
+ * @since 2024/8/25
+ */
+public class TimingWheelEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String id;
+
+    private String queueKey;
+
+    /**
+     * 到期时间戳(毫秒)
+     */
+    private long deadline;
+
+    private Object message;
+
+    public TimingWheelEntry() {
+    }
+
+    public TimingWheelEntry(String id, String queueKey, long deadline, Object message) {
+        this.id = id;
+        this.queueKey = queueKey;
+        this.deadline = deadline;
+        this.message = message;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getQueueKey() {
+        return queueKey;
+    }
+
+    public void setQueueKey(String queueKey) {
+        this.queueKey = queueKey;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    public Object getMessage() {
+        return message;
+    }
+
+    public void setMessage(Object message) {
+        this.message = message;
+    }
+}
@@ -1,7 +1,10 @@
 package org.sunshine.core.cache.redisson.util;
 
+import org.redisson.api.RLock;
+import org.sunshine.core.cache.redisson.LockType;
 import org.sunshine.core.cache.redisson.Locker;
 
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -159,4 +162,70 @@ public class RedissonLockUtils {
     public static boolean isHeldByCurrentThread(String lockKey) {
         return locker.isHeldByCurrentThread(lockKey);
     }
+
+    /**
+     * 获取锁对象
+     *
+     * @param lockKey 锁名称
+     * @param type    锁类型
+     * @return {@link RLock}
+     */
+    public static RLock getLock(String lockKey, LockType type) {
+        return locker.getLock(lockKey, type);
+    }
+
+    /**
+     * 获取同时锁定多个名称的锁对象
+     *
+     * @param lockKeys 锁名称
+     * @param type     锁类型，不支持FENCED
+     * @return {@link RLock}
+     */
+    public static RLock getMultiLock(Collection<String> lockKeys, LockType type) {
+        return locker.getMultiLock(lockKeys, type);
+    }
+
+    /**
+     * 获取读锁
+     *
+     * @param lockKey 锁名称
+     * @return {@link RLock}
+     */
+    public static RLock readLock(String lockKey) {
+        return locker.getLock(lockKey, LockType.READ);
+    }
+
+    /**
+     * 获取写锁
+     *
+     * @param lockKey 锁名称
+     * @return {@link RLock}
+     */
+    public static RLock writeLock(String lockKey) {
+        return locker.getLock(lockKey, LockType.WRITE);
+    }
+
+    /**
+     * 获取fencing锁并返回token
+     *
+     * @param lockKey 锁名称
+     * @return 单调递增的token
+     */
+    public static Long lockAndGetToken(String lockKey) {
+        return locker.lockAndGetToken(lockKey);
+    }
+
+    /**
+     * 尝试获取fencing锁并返回token
+     *
+     * @param lockKey   锁名称
+     * @param waitTime  等待时长
+     * @param leaseTime 超时释放
+     * @param unit      时间单位
+     * @return 单调递增的token，未获取到时为null
+     * @throws InterruptedException InterruptedException
+     */
+    public static Long tryLockAndGetToken(String lockKey, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return locker.tryLockAndGetToken(lockKey, waitTime, leaseTime, unit);
+    }
 }
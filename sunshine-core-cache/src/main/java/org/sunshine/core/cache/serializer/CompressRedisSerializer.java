@@ -0,0 +1,94 @@
+package org.sunshine.core.cache.serializer;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.Assert;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 压缩序列化器，序列化后超过阈值的值使用LZ4压缩，需引入lz4-java
+ * <p>
+ * 格式：1字节标识（0未压缩，1LZ4）+ [压缩时4字节原始长度] + 数据。
+ * 首字节不是标识的数据（如incr等命令写入的纯文本数字，或开启压缩前写入的文本数据）直接交给delegate解析
+ *
+ * @author Teamo
+ * @since 2024/8/16
+ */
+public class CompressRedisSerializer<T> implements RedisSerializer<T> {
+
+    private static final byte RAW = 0;
+
+    private static final byte LZ4 = 1;
+
+    private static final int LZ4_HEADER_LENGTH = 5;
+
+    private final RedisSerializer<T> delegate;
+
+    /**
+     * 压缩阈值（字节），序列化后小于该值时不压缩
+     */
+    private final int threshold;
+
+    private final LZ4Compressor compressor;
+
+    private final LZ4FastDecompressor decompressor;
+
+    public CompressRedisSerializer(RedisSerializer<T> delegate, int threshold) {
+        Assert.notNull(delegate, "RedisSerializer must not be null!");
+        this.delegate = delegate;
+        this.threshold = threshold;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length < threshold) {
+            byte[] result = new byte[bytes.length + 1];
+            result[0] = RAW;
+            System.arraycopy(bytes, 0, result, 1, bytes.length);
+            return result;
+        }
+        byte[] result = new byte[LZ4_HEADER_LENGTH + compressor.maxCompressedLength(bytes.length)];
+        int compressedLength = compressor.compress(bytes, 0, bytes.length, result, LZ4_HEADER_LENGTH);
+        ByteBuffer.wrap(result).put(LZ4).putInt(bytes.length);
+        return Arrays.copyOf(result, LZ4_HEADER_LENGTH + compressedLength);
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        byte[] data;
+        switch (bytes[0]) {
+            case RAW:
+                data = new byte[bytes.length - 1];
+                System.arraycopy(bytes, 1, data, 0, data.length);
+                break;
+            case LZ4:
+                int length = ByteBuffer.wrap(bytes, 1, 4).getInt();
+                data = new byte[length];
+                try {
+                    decompressor.decompress(bytes, LZ4_HEADER_LENGTH, data, 0, length);
+                } catch (RuntimeException e) {
+                    throw new SerializationException("Could not decompress: " + e.getMessage(), e);
+                }
+                break;
+            default:
+                // 未经过压缩序列化器写入的数据
+                return delegate.deserialize(bytes);
+        }
+        return delegate.deserialize(data);
+    }
+}
@@ -0,0 +1,78 @@
+package org.sunshine.core.cache.serializer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSONB序列化器，兼容incr、hincr等命令写入的纯文本数字
+ * <p>
+ * JSONB中Integer的编码首字节可能为数字字符或'-'，与纯文本数字无法区分，因此Integer写为与incr相同的文本格式，
+ * 读取时数字文本按数字解析，其余数据交给JSONB解析。JSONB中其他类型的首字节均不是数字字符或'-'
+ *
+ * @author Teamo
+ * @since 2024/8/16
+ */
+public class JsonbRedisSerializer<T> implements RedisSerializer<T> {
+
+    private final RedisSerializer<T> delegate;
+
+    public JsonbRedisSerializer(RedisSerializer<T> delegate) {
+        Assert.notNull(delegate, "RedisSerializer must not be null!");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value instanceof Integer) {
+            return value.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        return delegate.serialize(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        Object number = parseNumber(bytes);
+        return number != null ? (T) number : delegate.deserialize(bytes);
+    }
+
+    /**
+     * 解析纯文本数字，与FastJSON解析文本数字的结果类型一致
+     *
+     * @param bytes 数据
+     * @return 整数在int范围内时为Integer，否则为Long或BigInteger，小数为BigDecimal，不是数字文本时为null
+     */
+    private static Object parseNumber(byte[] bytes) {
+        int start = bytes[0] == '-' ? 1 : 0;
+        if (start == bytes.length) {
+            return null;
+        }
+        int dot = -1;
+        for (int i = start; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b == '.' && dot < 0 && i > start && i < bytes.length - 1) {
+                dot = i;
+            } else if (b < '0' || b > '9') {
+                return null;
+            }
+        }
+        String text = new String(bytes, StandardCharsets.US_ASCII);
+        if (dot >= 0) {
+            return new BigDecimal(text);
+        }
+        try {
+            long value = Long.parseLong(text);
+            return value == (int) value ? (Object) (int) value : (Object) value;
+        } catch (NumberFormatException e) {
+            return new BigInteger(text);
+        }
+    }
+}
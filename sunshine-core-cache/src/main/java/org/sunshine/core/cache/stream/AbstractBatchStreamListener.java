@@ -0,0 +1,77 @@
+package org.sunshine.core.cache.stream;
+
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量消费Stream消息，每次拉取到的消息一起处理，处理成功的消息使用一次XACK确认
+ *
+ * @author Teamo
+ * @since 2024/8/20
+ */
+public abstract class AbstractBatchStreamListener<T extends AbstractStreamMessage> extends AbstractStreamConsumer<T> {
+
+    /**
+     * 批量处理消息，分区时每批消息来自同一子stream，不同子stream的批次会并发调用
+     *
+     * @param messages 一次拉取到的消息，按写入顺序排列
+     * @return 处理失败的消息（需为messages中的对象），不会被确认，由pending消息处理重新投递；全部成功时返回空集合
+     */
+    public abstract List<T> onMessages(List<T> messages);
+
+    /**
+     * 每批最大消息数
+     *
+     * @return int
+     */
+    public int getBatchSize() {
+        return 100;
+    }
+
+    /**
+     * 凑满一批的最长等待时间，到时后处理已拉取到的消息，需小于spring.redis.timeout
+     *
+     * @return Duration
+     */
+    public Duration getMaxWait() {
+        return Duration.ofSeconds(1L);
+    }
+
+    /**
+     * 处理一批消息并确认成功的消息，处理时抛出异常则整批都不确认
+     *
+     * @param records 消息
+     * @return 处理成功的消息数
+     */
+    int onRecords(List<ObjectRecord<String, String>> records) {
+        List<T> messages = new ArrayList<>(records.size());
+        Map<T, ObjectRecord<String, String>> messageRecords = new IdentityHashMap<>(records.size());
+        for (ObjectRecord<String, String> record : records) {
+            T message = parseMessage(record.getValue());
+            messages.add(message);
+            messageRecords.put(message, record);
+        }
+        List<T> failedMessages = onMessages(messages);
+        if (failedMessages != null) {
+            failedMessages.forEach(messageRecords::remove);
+        }
+        // 按消息所属的stream确认，分区时为对应的子stream
+        Map<String, List<RecordId>> recordIds = new HashMap<>();
+        messageRecords.values().forEach(record ->
+                recordIds.computeIfAbsent(record.getStream(), key -> new ArrayList<>()).add(record.getId()));
+        recordIds.forEach((streamKey, ids) -> acknowledge(streamKey, ids.toArray(new RecordId[0])));
+        return messageRecords.size();
+    }
+
+    @Override
+    int redeliver(List<ObjectRecord<String, String>> records) {
+        return onRecords(records);
+    }
+}
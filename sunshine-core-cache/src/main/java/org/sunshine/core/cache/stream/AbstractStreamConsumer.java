@@ -0,0 +1,174 @@
+package org.sunshine.core.cache.stream;
+
+import com.alibaba.fastjson2.JSON;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.sunshine.core.cache.RedisMQTemplate;
+import org.sunshine.core.cache.support.scheduling.DistributedTaskScheduling;
+import org.sunshine.core.tool.util.BeanUtils;
+import org.sunshine.core.tool.util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Stream消费者基类，单条消费继承{@link AbstractStreamListener}，批量消费继承{@link AbstractBatchStreamListener}
+ *
+ * @author Teamo
+ * @since 2024/8/20
+ */
+public abstract class AbstractStreamConsumer<T extends AbstractStreamMessage> {
+
+    private static final String LOCK_KEY = "lock:scheduled:redis:trim:%s";
+
+    private RedisMQTemplate redisMQTemplate;
+
+    private final Class<T> messageType;
+
+    private final String streamKey;
+
+    /**
+     * 订阅的stream key，分区时为所有子stream key
+     */
+    private final List<String> streamKeys;
+
+    /**
+     * Redis 消费组，默认使用 spring.application.name 名字
+     */
+    @Value("${spring.application.name}")
+    private String group;
+
+    private final Object pauseMonitor = new Object();
+
+    private volatile boolean paused;
+
+    protected AbstractStreamConsumer() {
+        this.messageType = getMessageClass();
+        T message = BeanUtils.newInstance(this.messageType);
+        this.streamKey = message.getStreamKey();
+        this.streamKeys = StreamPartitions.streamKeys(streamKey, message.getPartitions());
+    }
+
+    /**
+     * 清理消息队列（定时任务）
+     *
+     * @param count 保留数量
+     * @deprecated 使用spring.redis.stream.max-len在写入时裁剪
+     */
+    @Deprecated
+    protected void trim(long count) {
+        DistributedTaskScheduling scheduling = () -> streamKeys.forEach(key -> redisMQTemplate.redisTemplate().opsForStream().trim(key, count));
+        String key = String.format(LOCK_KEY, streamKey);
+        scheduling.execute(key);
+    }
+
+    /**
+     * 反序列化消息
+     *
+     * @param value 消息内容
+     * @return 消息
+     */
+    protected T parseMessage(String value) {
+        return JSON.parseObject(value, messageType);
+    }
+
+    /**
+     * 确认消息，多条消息使用一次XACK
+     *
+     * @param recordIds 消息ID
+     */
+    protected void acknowledge(RecordId... recordIds) {
+        acknowledge(streamKey, recordIds);
+    }
+
+    /**
+     * 确认指定stream中的消息，分区时使用消息所在的子stream key
+     *
+     * @param streamKey stream key
+     * @param recordIds 消息ID
+     */
+    protected void acknowledge(String streamKey, RecordId... recordIds) {
+        if (recordIds.length > 0) {
+            redisMQTemplate.redisTemplate().opsForStream().acknowledge(streamKey, group, recordIds);
+        }
+    }
+
+    /**
+     * 暂停拉取消息，已拉取的消息继续处理
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    /**
+     * 恢复拉取消息
+     */
+    public void resume() {
+        synchronized (pauseMonitor) {
+            paused = false;
+            pauseMonitor.notifyAll();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * 暂停时阻塞拉取线程，直到恢复
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    void awaitResumed() throws InterruptedException {
+        if (!paused) {
+            return;
+        }
+        synchronized (pauseMonitor) {
+            while (paused) {
+                pauseMonitor.wait();
+            }
+        }
+    }
+
+    /**
+     * 重新处理超时未确认的消息，处理成功后确认
+     *
+     * @param records 从pending列表转移到当前消费者的消息
+     * @return 处理成功的消息数
+     */
+    abstract int redeliver(List<ObjectRecord<String, String>> records);
+
+    @SuppressWarnings("unchecked")
+    private Class<T> getMessageClass() {
+        Type type = TypeUtils.getTypeArgument(getClass(), 0);
+        if (type == null) {
+            throw new IllegalStateException(String.format("类型(%s) 需要设置消息类型", getClass().getName()));
+        }
+        return (Class<T>) type;
+    }
+
+    public Class<T> getMessageType() {
+        return messageType;
+    }
+
+    public String getStreamKey() {
+        return streamKey;
+    }
+
+    public List<String> getStreamKeys() {
+        return streamKeys;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    protected RedisMQTemplate getRedisMQTemplate() {
+        return redisMQTemplate;
+    }
+
+    public void setRedisMQTemplate(RedisMQTemplate redisMQTemplate) {
+        this.redisMQTemplate = redisMQTemplate;
+    }
+}
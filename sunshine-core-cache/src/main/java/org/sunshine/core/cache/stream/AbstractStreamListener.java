@@ -1,80 +1,110 @@
 package org.sunshine.core.cache.stream;
 
-import com.alibaba.fastjson2.JSON;
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.stream.StreamListener;
-import org.sunshine.core.cache.RedisMQTemplate;
-import org.sunshine.core.cache.support.scheduling.DistributedTaskScheduling;
-import org.sunshine.core.tool.util.BeanUtils;
-import org.sunshine.core.tool.util.TypeUtils;
 
-import java.lang.reflect.Type;
+import java.util.List;
 
 /**
  * @author Teamo
  * @since 2023/5/26
  */
-public abstract class AbstractStreamListener<T extends AbstractStreamMessage>
-        implements StreamListener<String, ObjectRecord<String, String>> {
+public abstract class AbstractStreamListener<T extends AbstractStreamMessage> extends AbstractStreamConsumer<T>
+        implements StreamListener<String, ObjectRecord<String, String>>, DisposableBean {
 
-    private static final String LOCK_KEY = "lock:scheduled:redis:trim:%s";
+    private final static Logger log = LoggerFactory.getLogger(AbstractStreamListener.class);
 
-    private RedisMQTemplate redisMQTemplate;
+    private volatile StreamMessageDispatcher dispatcher;
 
-    private final Class<T> messageType;
-
-    private final String streamKey;
+    public abstract void onMessage(T message);
 
     /**
-     * Redis 消费组，默认使用 spring.application.name 名字
+     * 每个节点处理消息的线程数，为1时在拉取线程中逐条处理
+     *
+     * @return int
      */
-    @Value("${spring.application.name}")
-    private String group;
-
-    protected AbstractStreamListener() {
-        this.messageType = getMessageClass();
-        this.streamKey = BeanUtils.newInstance(this.messageType).getStreamKey();
+    public int getConcurrency() {
+        return 1;
     }
 
-    public abstract void onMessage(T message);
-
-    @Override
-    public void onMessage(ObjectRecord<String, String> message) {
-        T messageObj = JSON.parseObject(message.getValue(), messageType);
-        this.onMessage(messageObj);
-        redisMQTemplate.redisTemplate().opsForStream().acknowledge(group, message);
+    /**
+     * 已拉取但未处理完成的最大消息数，达到后暂停拉取，仅在并发处理时生效
+     *
+     * @return int
+     */
+    public int getMaxInFlight() {
+        return getConcurrency() * 10;
     }
 
     /**
-     * 清理消息队列（定时任务）
+     * 分区key，并发处理时分区key相同的消息在本节点内按拉取顺序处理
      *
-     * @param count 保留数量
+     * @param message 消息
+     * @return 分区key，为null时不保证顺序
      */
-    protected void trim(long count) {
-        DistributedTaskScheduling scheduling = () -> redisMQTemplate.redisTemplate().opsForStream().trim(streamKey, count);
-        String key = String.format(LOCK_KEY, streamKey);
-        scheduling.execute(key);
+    public Object getPartitionKey(T message) {
+        return null;
+    }
+
+    @Override
+    public void onMessage(ObjectRecord<String, String> message) {
+        try {
+            awaitResumed();
+            T messageObj = parseMessage(message.getValue());
+            if (getConcurrency() <= 1) {
+                handle(messageObj, message);
+                return;
+            }
+            getDispatcher().dispatch(getPartitionKey(messageObj), message, () -> handle(messageObj, message));
+        } catch (InterruptedException e) {
+            // 容器停止，消息未确认，由pending消息处理重新投递
+            Thread.currentThread().interrupt();
+        }
     }
 
-    @SuppressWarnings("unchecked")
-    private Class<T> getMessageClass() {
-        Type type = TypeUtils.getTypeArgument(getClass(), 0);
-        if (type == null) {
-            throw new IllegalStateException(String.format("类型(%s) 需要设置消息类型", getClass().getName()));
+    @Override
+    public void destroy() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
         }
-        return (Class<T>) type;
     }
 
-    public String getStreamKey() {
-        return streamKey;
+    @Override
+    int redeliver(List<ObjectRecord<String, String>> records) {
+        int succeeded = 0;
+        for (ObjectRecord<String, String> record : records) {
+            if (dispatcher != null && dispatcher.isInFlight(record)) {
+                // 已在本节点排队或处理中，处理完成后确认，不能重复处理
+                log.debug("Skip in-flight message, stream: {}, id: {}", record.getStream(), record.getId());
+                continue;
+            }
+            try {
+                handle(parseMessage(record.getValue()), record);
+                succeeded++;
+            } catch (Exception e) {
+                // 未确认的消息在下次处理时再次投递
+                log.error("Failed to redeliver message, stream: {}, id: {}", record.getStream(), record.getId(), e);
+            }
+        }
+        return succeeded;
     }
 
-    public String getGroup() {
-        return group;
+    private void handle(T message, ObjectRecord<String, String> record) {
+        this.onMessage(message);
+        acknowledge(record.getStream(), record.getId());
     }
 
-    public void setRedisMQTemplate(RedisMQTemplate redisMQTemplate) {
-        this.redisMQTemplate = redisMQTemplate;
+    private StreamMessageDispatcher getDispatcher() {
+        if (dispatcher == null) {
+            synchronized (this) {
+                if (dispatcher == null) {
+                    dispatcher = new StreamMessageDispatcher(getStreamKey(), getConcurrency(), getMaxInFlight());
+                }
+            }
+        }
+        return dispatcher;
     }
 }
@@ -13,4 +13,23 @@ public abstract class AbstractStreamMessage implements Serializable {
     @JSONField(serialize = false)
     public abstract String getStreamKey();
 
+    /**
+     * 分区数，大于1时消息按分区key写入不同的子stream，子stream分布在不同的集群节点上
+     *
+     * @return int
+     */
+    @JSONField(serialize = false)
+    public int getPartitions() {
+        return 1;
+    }
+
+    /**
+     * 分区key，相同分区key的消息写入同一子stream，为null时随机选择分区
+     *
+     * @return 分区key
+     */
+    @JSONField(serialize = false)
+    public Object getPartitionKey() {
+        return null;
+    }
 }
@@ -0,0 +1,154 @@
+package org.sunshine.core.cache.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.sunshine.core.cache.RedisMQTemplate;
+import org.sunshine.core.tool.util.CollectionUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量消费监听容器，每个监听器的每个子stream使用一个线程循环拉取，处理完一批后再拉取下一批。
+ * 分区的子stream位于不同的slot，集群模式下不能在同一个XREADGROUP中读取，因此按子stream分别拉取
+ *
+ * @author Teamo
+ * @since 2024/8/20
+ */
+public class BatchStreamListenerContainer {
+
+    private final static Logger log = LoggerFactory.getLogger(BatchStreamListenerContainer.class);
+
+    /**
+     * 拉取出错后的重试间隔
+     */
+    private static final long ERROR_BACKOFF_MILLIS = 1000L;
+
+    private final List<AbstractBatchStreamListener<?>> listeners;
+
+    private final RedisMQTemplate redisMQTemplate;
+
+    private final String consumerName;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private volatile boolean running;
+
+    public BatchStreamListenerContainer(List<AbstractBatchStreamListener<?>> listeners, RedisMQTemplate redisMQTemplate,
+                                        String consumerName) {
+        this.listeners = listeners;
+        this.redisMQTemplate = redisMQTemplate;
+        this.consumerName = consumerName;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        executor = getExecutor();
+        listeners.forEach(listener -> {
+            listener.setRedisMQTemplate(redisMQTemplate);
+            listener.getStreamKeys().forEach(streamKey -> {
+                try {
+                    redisMQTemplate.redisTemplate().opsForStream().createGroup(streamKey, listener.getGroup());
+                } catch (Exception ignore) {
+                }
+                executor.execute(() -> poll(listener, streamKey));
+            });
+        });
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void poll(AbstractBatchStreamListener<?> listener, String streamKey) {
+        Consumer consumer = Consumer.from(listener.getGroup(), consumerName);
+        StreamOffset<String> offset = StreamOffset.create(streamKey, ReadOffset.lastConsumed());
+        while (running) {
+            try {
+                listener.awaitResumed();
+                List<ObjectRecord<String, String>> records = read(listener, consumer, offset);
+                if (!records.isEmpty()) {
+                    listener.onRecords(records);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Batch stream listener failed, stream: {}, group: {}", streamKey, listener.getGroup(), e);
+                try {
+                    Thread.sleep(ERROR_BACKOFF_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 拉取一批消息，凑满batchSize或超过maxWait时返回
+     *
+     * @param listener 监听器
+     * @param consumer 消费者
+     * @param offset   读取位置，每次只读取一个stream
+     * @return 消息
+     */
+    @SuppressWarnings("unchecked")
+    private List<ObjectRecord<String, String>> read(AbstractBatchStreamListener<?> listener, Consumer consumer,
+                                                    StreamOffset<String> offset) {
+        StreamOperations<String, Object, Object> ops = redisMQTemplate.redisTemplate().opsForStream();
+        int batchSize = listener.getBatchSize();
+        long deadline = System.currentTimeMillis() + listener.getMaxWait().toMillis();
+        List<ObjectRecord<String, String>> batch = new ArrayList<>(batchSize);
+        while (running && batch.size() < batchSize) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0L) {
+                break;
+            }
+            StreamReadOptions options = StreamReadOptions.empty()
+                    .count(batchSize - batch.size())
+                    .block(Duration.ofMillis(remaining));
+            List<ObjectRecord<String, String>> records = ops.read(String.class, consumer, options, offset);
+            if (CollectionUtils.isEmpty(records)) {
+                // 等待超时
+                break;
+            }
+            batch.addAll(records);
+        }
+        return batch;
+    }
+
+    private ThreadPoolTaskExecutor getExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // 每个监听器的每个子stream占用一个线程
+        int poolSize = Math.max(1, listeners.stream().mapToInt(listener -> listener.getStreamKeys().size()).sum());
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(120);
+        executor.setThreadNamePrefix("redis-stream-batch-");
+        executor.initialize();
+        return executor;
+    }
+}
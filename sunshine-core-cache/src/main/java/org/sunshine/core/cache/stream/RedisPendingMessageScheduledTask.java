@@ -2,110 +2,186 @@ package org.sunshine.core.cache.stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Range;
-import org.springframework.data.redis.connection.RedisStreamCommands;
-import org.springframework.data.redis.connection.stream.*;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
 import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.sunshine.core.cache.RedisMQTemplate;
+import org.sunshine.core.cache.properties.RedisStreamProperties;
 import org.sunshine.core.cache.support.scheduling.DistributedTaskScheduling;
-import org.sunshine.core.tool.util.CollectionUtils;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * 处理超时未确认的消息：使用XAUTOCLAIM分页转移到当前消费者并重新处理，投递次数过多的消息转入死信stream
+ *
  * @author Teamo
  * @since 2024/7/9
  */
 @EnableScheduling
-public class RedisPendingMessageScheduledTask {
+public class RedisPendingMessageScheduledTask implements DisposableBean {
 
     private final static Logger log = LoggerFactory.getLogger(RedisPendingMessageScheduledTask.class);
 
-    private final static String LOCK_KEY = "lock:scheduled:redis:pending:message";
+    private final static String LOCK_KEY = "lock:scheduled:redis:pending:%s:%s";
 
-    private final List<AbstractStreamListener<?>> listeners;
+    /**
+     * XAUTOCLAIM遍历结束时返回的游标
+     */
+    private final static String CURSOR_END = "0-0";
+
+    @SuppressWarnings("rawtypes")
+    private final static RedisScript<List> AUTOCLAIM_SCRIPT = RedisScript.of(new ClassPathResource("scripts/stream_autoclaim.lua"), List.class);
+
+    private final List<AbstractStreamConsumer<?>> listeners;
 
     private final RedisMQTemplate redisMQTemplate;
 
-    public RedisPendingMessageScheduledTask(List<AbstractStreamListener<?>> listeners, RedisMQTemplate redisMQTemplate) {
+    private final RedisStreamProperties.Pending properties;
+
+    private final String consumerName;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    /**
+     * 重新处理成功的消息数
+     */
+    private final LongAdder recoveredCount = new LongAdder();
+
+    /**
+     * 转入死信stream的消息数
+     */
+    private final LongAdder deadLetteredCount = new LongAdder();
+
+    public RedisPendingMessageScheduledTask(List<AbstractStreamConsumer<?>> listeners, RedisMQTemplate redisMQTemplate,
+                                            RedisStreamProperties.Pending properties, String consumerName) {
         this.listeners = listeners;
         this.redisMQTemplate = redisMQTemplate;
+        this.properties = properties;
+        this.consumerName = consumerName;
+        this.executor = getExecutor();
     }
 
     @Scheduled(cron = "30 * * * * ?")
     public void run() {
-        DistributedTaskScheduling scheduling = this::handlePendingMessage;
-        scheduling.execute(LOCK_KEY);
+        // 按stream加锁，不同的stream及分区可由不同节点同时处理
+        CompletableFuture<?>[] futures = listeners.stream()
+                .flatMap(listener -> listener.getStreamKeys().stream().map(streamKey -> CompletableFuture.runAsync(() -> {
+                    DistributedTaskScheduling scheduling = () -> handlePendingMessage(listener, streamKey);
+                    scheduling.execute(String.format(LOCK_KEY, streamKey, listener.getGroup()));
+                }, executor)))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
     }
 
-    private void handlePendingMessage() {
-        StreamOperations<String, Object, Object> ops = redisMQTemplate.redisTemplate().opsForStream();
-        listeners.forEach(listener -> {
-            String streamKey = listener.getStreamKey();
-            String group = listener.getGroup();
-            // 获取group中的pending消息信息
-            PendingMessagesSummary pendingMessagesSummary = ops.pending(streamKey, group);
-            if (pendingMessagesSummary == null) {
-                return;
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 重新处理成功的消息数
+     *
+     * @return long
+     */
+    public long getRecoveredCount() {
+        return recoveredCount.sum();
+    }
+
+    /**
+     * 转入死信stream的消息数
+     *
+     * @return long
+     */
+    public long getDeadLetteredCount() {
+        return deadLetteredCount.sum();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void handlePendingMessage(AbstractStreamConsumer<?> listener, String streamKey) {
+        String group = listener.getGroup();
+        // 两个key需位于同一slot，否则集群模式下脚本执行失败
+        List<String> keys = Arrays.asList(streamKey, StreamPartitions.deadLetterKey(streamKey, properties.getDeadLetterSuffix()));
+        String cursor = CURSOR_END;
+        long recovered = 0L;
+        long deadLettered = 0L;
+        for (int page = 0; page < properties.getMaxPages(); page++) {
+            List<Object> result = redisMQTemplate.redisTemplate().execute(AUTOCLAIM_SCRIPT, RedisSerializer.string(),
+                    (RedisSerializer) RedisSerializer.byteArray(), keys, group, consumerName, String.valueOf(properties.getMinIdle().toMillis()),
+                    cursor, String.valueOf(properties.getPageSize()), String.valueOf(properties.getMaxDeliveries()));
+            if (result == null || result.size() < 3) {
+                break;
+            }
+            cursor = new String((byte[]) result.get(0), StandardCharsets.UTF_8);
+            deadLettered += (Long) result.get(2);
+            List<ObjectRecord<String, String>> records = toRecords(streamKey, (List<Object>) result.get(1));
+            if (!records.isEmpty()) {
+                recovered += listener.redeliver(records);
+            }
+            if (CURSOR_END.equals(cursor)) {
+                break;
             }
-            // 所有pending消息的数量
-            long totalPendingMessages = pendingMessagesSummary.getTotalPendingMessages();
-            if (totalPendingMessages == 0) {
-                return;
+        }
+        recoveredCount.add(recovered);
+        deadLetteredCount.add(deadLettered);
+        if (recovered > 0L || deadLettered > 0L) {
+            log.info("Handled pending messages, stream: {}, group: {}, recovered: {}, dead-lettered: {}",
+                    streamKey, group, recovered, deadLettered);
+        }
+    }
+
+    /**
+     * 将脚本返回的消息转换为与监听容器一致的{@link ObjectRecord}
+     *
+     * @param streamKey stream key
+     * @param entries   [[id, [field, value, ...]], ...]
+     * @return 消息
+     */
+    @SuppressWarnings("unchecked")
+    private List<ObjectRecord<String, String>> toRecords(String streamKey, List<Object> entries) {
+        StreamOperations<String, Object, Object> ops = redisMQTemplate.redisTemplate().opsForStream();
+        byte[] rawKey = streamKey.getBytes(StandardCharsets.UTF_8);
+        List<ObjectRecord<String, String>> records = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            List<Object> values = (List<Object>) entry;
+            List<Object> fields = (List<Object>) values.get(1);
+            Map<byte[], byte[]> body = new LinkedHashMap<>(fields.size());
+            for (int i = 0; i + 1 < fields.size(); i += 2) {
+                body.put((byte[]) fields.get(i), (byte[]) fields.get(i + 1));
             }
-            // 获取每个消费者的pending消息数量
-            Map<String, Long> pendingMessagesPerConsumer = pendingMessagesSummary.getPendingMessagesPerConsumer();
-            Map<String, List<RecordId>> oldConsumerTransferMessageMap = new HashMap<>();
-            // 遍历每个消费者中的pending消息
-            pendingMessagesPerConsumer.forEach((consumer, consumerTotalPendingMessages) -> {
-                if (consumerTotalPendingMessages == 0) {
-                    return;
-                }
-                // 读取消费者pending队列
-                PendingMessages pendingMessages = ops.pending(streamKey, Consumer.from(group, consumer));
-                List<RecordId> transferGroupMessageList = new ArrayList<>(pendingMessages.size());
-                pendingMessages.forEach(pendingMessage -> {
-                    RecordId recordId = pendingMessage.getId();
-                    // 消息从消费组中获取，到此刻的时间
-                    Duration elapsedTimeSinceLastDelivery = pendingMessage.getElapsedTimeSinceLastDelivery();
-                    // 消息被获取的次数
-                    long deliveryCount = pendingMessage.getTotalDeliveryCount();
-                    if (elapsedTimeSinceLastDelivery.getSeconds() > 20 && deliveryCount == 1) {
-                        // 转组
-                        transferGroupMessageList.add(recordId);
-                    } else if (deliveryCount > 1) {
-                        // 重新投递并消费
-                        List<MapRecord<String, Object, Object>> records = ops.range(streamKey, Range.rightOpen(recordId.getValue(), recordId.getValue()));
-                        if (CollectionUtils.isEmpty(records)) {
-                            return;
-                        }
-                        MapRecord<String, Object, Object> entries = records.get(0);
-                        ops.add(Record.of(entries.getValue()).withStreamKey(streamKey));
-                        ops.acknowledge(streamKey, group, recordId);
-                    }
-                });
-
-                if (transferGroupMessageList.size() > 0) {
-                    oldConsumerTransferMessageMap.put(consumer, transferGroupMessageList);
-                }
-            });
-
-            oldConsumerTransferMessageMap.forEach((oldConsumer, recordIds) -> {
-                // 根据当前consumer去获取另外一个consumer
-                StreamInfo.XInfoConsumers consumers = ops.consumers(streamKey, group);
-                List<StreamInfo.XInfoConsumer> newConsumers = consumers.stream().filter(consumer -> !consumer.consumerName().equals(oldConsumer)).collect(Collectors.toList());
-                newConsumers.forEach(consumer -> {
-                    List<MapRecord<String, Object, Object>> mapRecords = ops.claim(streamKey, group, oldConsumer, RedisStreamCommands.XClaimOptions.minIdle(Duration.ofSeconds(10)).ids(recordIds));
-                    mapRecords.forEach(entries -> log.info("转移消息 id: {}, value: {}", entries.getId(), entries.getValue()));
-                });
-            });
-        });
+            ByteRecord record = StreamRecords.newRecord()
+                    .in(rawKey)
+                    .withId(RecordId.of(new String((byte[]) values.get(0), StandardCharsets.UTF_8)))
+                    .ofBytes(body);
+            records.add(ops.map(ops.deserializeRecord(record), String.class));
+        }
+        return records;
+    }
+
+    private ThreadPoolTaskExecutor getExecutor() {
+        int parallelism = Math.max(1, properties.getParallelism());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.setThreadNamePrefix("redis-stream-pending-");
+        executor.initialize();
+        return executor;
     }
 }
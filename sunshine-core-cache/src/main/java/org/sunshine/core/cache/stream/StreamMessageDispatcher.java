@@ -0,0 +1,126 @@
+package org.sunshine.core.cache.stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.stream.Record;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 将监听容器拉取到的消息分发到多个处理线程，处理中的消息达到上限时阻塞拉取线程，暂停拉取新消息。
+ * 分区key相同的消息分发到同一线程，按拉取顺序处理
+ *
+ * @author Teamo
+ * @since 2024/8/22
+ */
+class StreamMessageDispatcher {
+
+    private final static Logger log = LoggerFactory.getLogger(StreamMessageDispatcher.class);
+
+    private final String streamKey;
+
+    /**
+     * 每个线程一个执行器，保证同一分区key的消息按顺序处理
+     */
+    private final ThreadPoolTaskExecutor[] lanes;
+
+    private final Semaphore inFlight;
+
+    /**
+     * 已拉取但未处理完成的消息，stream key/消息ID
+     */
+    private final Set<String> inFlightIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    StreamMessageDispatcher(String streamKey, int concurrency, int maxInFlight) {
+        this.streamKey = streamKey;
+        this.lanes = new ThreadPoolTaskExecutor[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            lanes[i] = getExecutor(i);
+        }
+        this.inFlight = new Semaphore(Math.max(maxInFlight, concurrency));
+    }
+
+    /**
+     * 分发消息
+     *
+     * @param partitionKey 分区key，为null时轮询分发
+     * @param record       消息
+     * @param task         处理任务
+     * @throws InterruptedException 等待处理中的消息减少时被中断
+     */
+    void dispatch(Object partitionKey, Record<String, ?> record, Runnable task) throws InterruptedException {
+        String id = idOf(record);
+        inFlightIds.add(id);
+        try {
+            if (!inFlight.tryAcquire()) {
+                log.debug("Too many in-flight messages, polling paused, stream: {}", streamKey);
+                inFlight.acquire();
+            }
+        } catch (InterruptedException e) {
+            inFlightIds.remove(id);
+            throw e;
+        }
+        try {
+            lanes[laneOf(partitionKey)].execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    // 未确认的消息由pending消息处理重新投递
+                    log.error("Failed to handle message, stream: {}", streamKey, e);
+                } finally {
+                    inFlightIds.remove(id);
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlightIds.remove(id);
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 消息是否已拉取到本节点且未处理完成，在队列中等待时Redis中的空闲时间仍在增长，会被pending消息处理转移
+     *
+     * @param record 消息
+     * @return boolean
+     */
+    boolean isInFlight(Record<String, ?> record) {
+        return inFlightIds.contains(idOf(record));
+    }
+
+    /**
+     * 等待已分发的消息处理完成后关闭
+     */
+    void shutdown() {
+        for (ThreadPoolTaskExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private static String idOf(Record<String, ?> record) {
+        return record.getStream() + "/" + record.getId().getValue();
+    }
+
+    private int laneOf(Object partitionKey) {
+        int hash = partitionKey == null ? counter.getAndIncrement() : partitionKey.hashCode();
+        return (hash & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    private ThreadPoolTaskExecutor getExecutor(int index) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setThreadNamePrefix("redis-stream-" + streamKey + "-" + index + "-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,106 @@
+package org.sunshine.core.cache.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * 分区stream工具类，子stream key为{streamKey:分区号}，使用hash tag保证子stream与其死信stream位于同一slot
+ *
+ * @author Teamo
+ * @since 2024/8/23
+ */
+public final class StreamPartitions {
+
+    private StreamPartitions() {
+    }
+
+    /**
+     * 获取消息写入的stream key
+     *
+     * @param message 消息
+     * @return stream key
+     */
+    public static String resolve(AbstractStreamMessage message) {
+        int partitions = message.getPartitions();
+        if (partitions <= 1) {
+            return message.getStreamKey();
+        }
+        return streamKey(message.getStreamKey(), partitionOf(message.getPartitionKey(), partitions));
+    }
+
+    /**
+     * 获取所有子stream key
+     *
+     * @param streamKey  stream key
+     * @param partitions 分区数
+     * @return 子stream key，未分区时为streamKey本身
+     */
+    public static List<String> streamKeys(String streamKey, int partitions) {
+        if (partitions <= 1) {
+            return Collections.singletonList(streamKey);
+        }
+        List<String> streamKeys = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            streamKeys.add(streamKey(streamKey, i));
+        }
+        return streamKeys;
+    }
+
+    /**
+     * 获取子stream key
+     *
+     * @param streamKey stream key
+     * @param partition 分区号
+     * @return 子stream key
+     */
+    public static String streamKey(String streamKey, int partition) {
+        return "{" + streamKey + ":" + partition + "}";
+    }
+
+    /**
+     * 获取死信stream key，与原stream位于同一slot，集群模式下可在同一脚本中操作。
+     * 原stream key已包含hash tag（如分区子stream）时直接加后缀，否则将原stream key作为hash tag
+     *
+     * @param streamKey stream key
+     * @param suffix    死信stream后缀
+     * @return 死信stream key
+     */
+    public static String deadLetterKey(String streamKey, String suffix) {
+        return hasHashTag(streamKey) ? streamKey + suffix : "{" + streamKey + "}" + suffix;
+    }
+
+    /**
+     * 是否包含有效的hash tag，规则与Redis集群一致：第一个'{'之后第一个'}'之间的内容非空
+     *
+     * @param key key
+     * @return boolean
+     */
+    private static boolean hasHashTag(String key) {
+        int open = key.indexOf('{');
+        if (open < 0) {
+            return false;
+        }
+        int close = key.indexOf('}', open + 1);
+        return close > open + 1;
+    }
+
+    /**
+     * 计算分区号，按分区key的字符串计算，不同节点的结果一致
+     *
+     * @param partitionKey 分区key
+     * @param partitions   分区数
+     * @return 分区号
+     */
+    public static int partitionOf(Object partitionKey, int partitions) {
+        if (partitionKey == null) {
+            return ThreadLocalRandom.current().nextInt(partitions);
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(String.valueOf(partitionKey).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc32.getValue() % partitions);
+    }
+}
@@ -0,0 +1,48 @@
+package org.sunshine.core.cache.support;
+
+import java.io.Serializable;
+
+/**
+ * 开启提前刷新时存入缓存的值，记录写入时间用于判断是否需要刷新
+ *
+ * @author Teamo
+ * @since 2024/8/14
+ */
+public class CacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 缓存值
+     */
+    private Object value;
+
+    /**
+     * 写入时间（毫秒）
+     */
+    private long writeTime;
+
+    public CacheEntry() {
+    }
+
+    public CacheEntry(Object value, long writeTime) {
+        this.value = value;
+        this.writeTime = writeTime;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    public void setWriteTime(long writeTime) {
+        this.writeTime = writeTime;
+    }
+}
@@ -0,0 +1,62 @@
+package org.sunshine.core.cache.support;
+
+import java.io.Serializable;
+
+/**
+ * 本地缓存同步消息
+ *
+ * @author Teamo
+ * @since 2024/8/12
+ */
+public class CacheMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 发送消息的节点ID，用于忽略自身发出的消息
+     */
+    private String nodeId;
+
+    /**
+     * 缓存名称
+     */
+    private String cacheName;
+
+    /**
+     * 缓存key，为null时表示清空整个缓存
+     */
+    private String key;
+
+    public CacheMessage() {
+    }
+
+    public CacheMessage(String nodeId, String cacheName, String key) {
+        this.nodeId = nodeId;
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+}
@@ -0,0 +1,40 @@
+package org.sunshine.core.cache.support;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Objects;
+
+/**
+ * 本地缓存同步消息监听器，收到其他节点的消息后失效本地缓存
+ *
+ * @author Teamo
+ * @since 2024/8/12
+ */
+public class CacheMessageListener implements MessageListener {
+
+    private final RedisSerializer<?> redisSerializer;
+
+    private final CustomCacheManager cacheManager;
+
+    public CacheMessageListener(RedisSerializer<?> redisSerializer, CustomCacheManager cacheManager) {
+        this.redisSerializer = redisSerializer;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisSerializer.deserialize(message.getBody());
+        if (!(body instanceof CacheMessage)) {
+            return;
+        }
+        CacheMessage cacheMessage = (CacheMessage) body;
+        // 忽略本节点发出的消息
+        if (Objects.equals(cacheManager.getNodeId(), cacheMessage.getNodeId())) {
+            return;
+        }
+        cacheManager.clearLocal(cacheMessage.getCacheName(), cacheMessage.getKey());
+    }
+}
@@ -0,0 +1,54 @@
+package org.sunshine.core.cache.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.sunshine.core.tool.util.IdUtils;
+
+/**
+ * 本地缓存同步消息发布者，通过Redis发布订阅通知其他节点失效本地缓存
+ *
+ * @author Teamo
+ * @since 2024/8/12
+ */
+public class CacheMessagePublisher {
+
+    private final static Logger log = LoggerFactory.getLogger(CacheMessagePublisher.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final String topic;
+
+    /**
+     * 当前节点ID
+     */
+    private final String nodeId = IdUtils.simpleUUID();
+
+    public CacheMessagePublisher(RedisTemplate<String, Object> redisTemplate, String topic) {
+        this.redisTemplate = redisTemplate;
+        this.topic = topic;
+    }
+
+    /**
+     * 发布失效消息
+     *
+     * @param cacheName 缓存名称
+     * @param key       缓存key，为null时表示清空整个缓存
+     */
+    public void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(topic, new CacheMessage(nodeId, cacheName, key));
+        } catch (Exception e) {
+            // 同步失败不影响本节点的缓存操作，其他节点的本地缓存依赖过期时间兜底
+            log.error("Publish cache message failed, cacheName: {}, key: {}", cacheName, key, e);
+        }
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,29 @@
+package org.sunshine.core.cache.support;
+
+import com.alibaba.fastjson2.JSONB;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+/**
+ * 按值序列化后的字节数估算本地缓存占用
+ *
+ * @author Teamo
+ * @since 2024/8/15
+ */
+public class CacheValueWeigher implements Weigher<Object, Object> {
+
+    /**
+     * 无法估算时使用的默认占用
+     */
+    private static final int DEFAULT_WEIGHT = 64;
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public int weigh(Object key, Object value) {
+        int keyWeight = key.toString().length() * 2;
+        try {
+            return keyWeight + JSONB.toBytes(value).length;
+        } catch (Exception e) {
+            return keyWeight + DEFAULT_WEIGHT;
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package org.sunshine.core.cache.support;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.lang.Nullable;
+import org.sunshine.core.cache.properties.CustomCacheProperties;
+import org.sunshine.core.cache.redisson.Locker;
 
-import java.util.concurrent.Callable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.*;
 
 /**
  * @author Teamo
  * @since 2023/3/10
  */
 public class CustomCache implements Cache {
+
+    private final static Logger log = LoggerFactory.getLogger(CustomCache.class);
+
     /**
      * 缓存名称
      */
@@ -24,10 +35,66 @@ public class CustomCache implements Cache {
      */
     private final Cache remoteCache;
 
+    /**
+     * 本地缓存同步消息发布者，为null时不进行多节点同步
+     */
+    @Nullable
+    private final CacheMessagePublisher publisher;
+
+    /**
+     * 多节点加载互斥使用的锁，为null时仅在当前节点内合并加载
+     */
+    @Nullable
+    private final Locker locker;
+
+    /**
+     * 多节点加载互斥配置
+     */
+    private final CustomCacheProperties.DistributedLoad distributedLoad;
+
+    /**
+     * 当前缓存的配置
+     */
+    private final CustomCacheProperties.CacheSpec spec;
+
+    /**
+     * 后台刷新线程池，为null时不开启提前刷新
+     */
+    @Nullable
+    private final Executor refreshExecutor;
+
+    /**
+     * 正在进行的加载，同一key在当前节点内只执行一次valueLoader
+     */
+    private final ConcurrentMap<String, CompletableFuture<Object>> loadingFutures = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程正在执行valueLoader的key，用于检测valueLoader内再次加载同一key
+     */
+    private final ThreadLocal<Set<String>> loadingKeys = ThreadLocal.withInitial(HashSet::new);
+
+    private final CustomCacheStats stats = new CustomCacheStats();
+
     public CustomCache(String name, Cache localCache, Cache remoteCache) {
+        this(name, localCache, remoteCache, null);
+    }
+
+    public CustomCache(String name, Cache localCache, Cache remoteCache, @Nullable CacheMessagePublisher publisher) {
+        this(name, localCache, remoteCache, publisher, null, new CustomCacheProperties.DistributedLoad(),
+                new CustomCacheProperties.CacheSpec(), null);
+    }
+
+    public CustomCache(String name, Cache localCache, Cache remoteCache, @Nullable CacheMessagePublisher publisher,
+                       @Nullable Locker locker, CustomCacheProperties.DistributedLoad distributedLoad,
+                       CustomCacheProperties.CacheSpec spec, @Nullable Executor refreshExecutor) {
         this.name = name;
         this.localCache = localCache;
         this.remoteCache = remoteCache;
+        this.publisher = publisher;
+        this.locker = locker;
+        this.distributedLoad = distributedLoad;
+        this.spec = spec;
+        this.refreshExecutor = spec.isRefreshEnabled() ? refreshExecutor : null;
     }
 
     @Override
@@ -44,14 +111,14 @@ public class CustomCache implements Cache {
 
     @Override
     public ValueWrapper get(Object key) {
-        ValueWrapper valueWrapper = localCache.get(key.toString());
-        if (valueWrapper != null) {
-            return valueWrapper;
-        }
-
-        valueWrapper = remoteCache.get(key);
-        if (valueWrapper != null) {
-            localCache.put(key, valueWrapper.get());
+        ValueWrapper valueWrapper = lookup(key);
+        if (valueWrapper != null && valueWrapper.get() instanceof CacheEntry) {
+            CacheEntry entry = (CacheEntry) valueWrapper.get();
+            if (isExpired(entry)) {
+                // 超过允许返回旧值的最长时间，视为未命中，由调用方重新加载
+                return null;
+            }
+            return new SimpleValueWrapper(entry.getValue());
         }
         return valueWrapper;
     }
@@ -71,37 +138,281 @@ public class CustomCache implements Cache {
     @Override
     @SuppressWarnings({"unchecked", "NullableProblems"})
     public <T> T get(Object key, Callable<T> valueLoader) {
-        ValueWrapper result = get(key);
+        ValueWrapper result = lookup(key);
         if (result != null) {
-            return (T) result.get();
+            Object stored = result.get();
+            if (!(stored instanceof CacheEntry)) {
+                return (T) stored;
+            }
+            CacheEntry entry = (CacheEntry) stored;
+            long age = System.currentTimeMillis() - entry.getWriteTime();
+            if (!shouldRefresh(age)) {
+                return (T) entry.getValue();
+            }
+            if (refreshExecutor != null && age < spec.getRefreshAfter().plus(spec.getMaxStale()).toMillis()) {
+                // 返回旧值，由后台刷新
+                refresh(key, valueLoader);
+                return (T) entry.getValue();
+            }
+        }
+
+        String cacheKey = key.toString();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> loadingFuture = loadingFutures.putIfAbsent(cacheKey, future);
+        if (loadingFuture != null) {
+            // 同一key已有线程在加载，等待其结果
+            stats.recordCoalesced();
+            return (T) await(key, valueLoader, loadingFuture);
         }
 
-        T value;
         try {
-            value = valueLoader.call();
-        } catch (Exception e) {
-            throw new ValueRetrievalException(key, valueLoader, e);
+            // 上一轮加载可能刚好在get之后完成，再检查一次本地缓存
+            ValueWrapper loaded = localCache.get(cacheKey);
+            Object value = loaded != null && isFresh(loaded.get()) ? unwrap(loaded.get()) : load(key, valueLoader);
+            future.complete(value);
+            return (T) value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingFutures.remove(cacheKey, future);
         }
-        put(key, value);
-        return value;
     }
 
     @Override
     public void put(Object key, Object value) {
-        remoteCache.put(key.toString(), value);
-        localCache.put(key.toString(), value);
+        if (value == null && !spec.isCacheNullValues()) {
+            // 不缓存null值，删除已有的旧值，避免@CachePut返回null后仍读到旧值
+            evict(key);
+            return;
+        }
+        Object stored = spec.isRefreshEnabled() ? new CacheEntry(value, System.currentTimeMillis()) : value;
+        remoteCache.put(key.toString(), stored);
+        localCache.put(key.toString(), stored);
+        publish(key.toString());
     }
 
     @Override
     @SuppressWarnings("NullableProblems")
     public void evict(Object key) {
         remoteCache.evict(key);
-        localCache.evict(key);
+        localCache.evict(key.toString());
+        publish(key.toString());
     }
 
     @Override
     public void clear() {
         remoteCache.clear();
         localCache.clear();
+        publish(null);
+    }
+
+    /**
+     * 仅失效本地缓存，用于响应其他节点的同步消息
+     *
+     * @param key 缓存key，为null时清空整个本地缓存
+     */
+    public void clearLocal(@Nullable String key) {
+        if (key == null) {
+            localCache.clear();
+        } else {
+            localCache.evict(key);
+        }
+    }
+
+    public CustomCacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * 依次从本地缓存、远程缓存获取，返回缓存中存储的原始值
+     *
+     * @param key 缓存key
+     * @return 未命中返回null
+     */
+    @Nullable
+    private ValueWrapper lookup(Object key) {
+        ValueWrapper valueWrapper = localCache.get(key.toString());
+        if (valueWrapper != null) {
+            stats.recordLocalHit();
+            return valueWrapper;
+        }
+
+        valueWrapper = getFromRemote(key);
+        if (valueWrapper == null) {
+            stats.recordMiss();
+        }
+        return valueWrapper;
+    }
+
+    /**
+     * 从远程缓存获取并回填本地缓存
+     *
+     * @param key 缓存key
+     * @return 未命中返回null
+     */
+    @Nullable
+    private ValueWrapper getFromRemote(Object key) {
+        ValueWrapper valueWrapper = remoteCache.get(key);
+        if (valueWrapper != null) {
+            stats.recordRemoteHit();
+            localCache.put(key.toString(), valueWrapper.get());
+        }
+        return valueWrapper;
+    }
+
+    /**
+     * 是否需要刷新，在刷新窗口内按距离到期的远近以递增的概率返回true
+     *
+     * @param age 写入至今的时间（毫秒）
+     * @return boolean
+     */
+    private boolean shouldRefresh(long age) {
+        if (!spec.isRefreshEnabled()) {
+            return false;
+        }
+        long refreshAfter = spec.getRefreshAfter().toMillis();
+        if (age >= refreshAfter) {
+            return true;
+        }
+        long window = spec.getRefreshWindow() == null ? 0L : spec.getRefreshWindow().toMillis();
+        long windowStart = refreshAfter - window;
+        if (window <= 0 || age < windowStart) {
+            return false;
+        }
+        return ThreadLocalRandom.current().nextLong(window) < age - windowStart;
+    }
+
+    /**
+     * 写入后是否已超过refreshAfter + maxStale，超过后不再返回旧值
+     *
+     * @param entry 缓存值
+     * @return boolean
+     */
+    private boolean isExpired(CacheEntry entry) {
+        if (!spec.isRefreshEnabled()) {
+            return false;
+        }
+        long age = System.currentTimeMillis() - entry.getWriteTime();
+        return age >= spec.getRefreshAfter().plus(spec.getMaxStale()).toMillis();
+    }
+
+        private boolean isFresh(Object stored) {
+        if (!(stored instanceof CacheEntry) || !spec.isRefreshEnabled()) {
+            return true;
+        }
+        return System.currentTimeMillis() - ((CacheEntry) stored).getWriteTime() < spec.getRefreshAfter().toMillis();
+    }
+
+    private Object unwrap(Object stored) {
+        return stored instanceof CacheEntry ? ((CacheEntry) stored).getValue() : stored;
+    }
+
+    /**
+     * 后台刷新，同一key已在加载时跳过。
+     * 期间超过maxStale的调用方会等待刷新结果，刷新失败时以异常结束，不将旧值返回给这些调用方
+     *
+     * @param key         缓存key
+     * @param valueLoader 加载器
+     */
+    private void refresh(Object key, Callable<?> valueLoader) {
+        String cacheKey = key.toString();
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        if (loadingFutures.putIfAbsent(cacheKey, future) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    future.complete(load(key, valueLoader));
+                } catch (Throwable e) {
+                    log.error("Refresh cache failed, cacheName: {}, key: {}", name, cacheKey, e);
+                    future.completeExceptionally(e);
+                } finally {
+                    loadingFutures.remove(cacheKey, future);
+                }
+            });
+            stats.recordRefresh();
+        } catch (RejectedExecutionException e) {
+            // 队列已满，跳过本次刷新
+            loadingFutures.remove(cacheKey, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 加载数据，开启多节点加载互斥时只有获取到锁的节点执行valueLoader，其他节点等待后从远程缓存读取
+     *
+     * @param key         缓存key
+     * @param valueLoader 加载器
+     * @return 值
+     */
+    private Object load(Object key, Callable<?> valueLoader) {
+        if (locker == null) {
+            return loadAndPut(key, valueLoader);
+        }
+        String lockKey = "lock:cache:" + name + ":" + key;
+        boolean locked = false;
+        try {
+            locked = locker.tryLock(lockKey, distributedLoad.getWaitTime().toMillis(),
+                    distributedLoad.getLeaseTime().toMillis(), TimeUnit.MILLISECONDS);
+            // 等待期间其他节点可能已完成加载，超时未获取到锁时同样先检查一次
+            ValueWrapper valueWrapper = getFromRemote(key);
+            if (valueWrapper != null && isFresh(valueWrapper.get())) {
+                return unwrap(valueWrapper.get());
+            }
+            return loadAndPut(key, valueLoader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            if (locked && locker.isHeldByCurrentThread(lockKey)) {
+                locker.unlock(lockKey);
+            }
+        }
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) {
+        Object value;
+        Set<String> keys = loadingKeys.get();
+        String cacheKey = key.toString();
+        keys.add(cacheKey);
+        try {
+            stats.recordLoad();
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            keys.remove(cacheKey);
+        }
+        put(key, value);
+        return value;
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> loadingFuture) {
+        if (loadingKeys.get().contains(key.toString())) {
+            // 等待自身的加载结果会永久阻塞
+            throw new IllegalStateException("Recursive load of cache key, cacheName: " + name + ", key: " + key);
+        }
+        try {
+            return loadingFuture.get(spec.getLoadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (TimeoutException e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ValueRetrievalException(key, valueLoader, cause);
+        }
+    }
+
+    private void publish(@Nullable String key) {
+        if (publisher != null) {
+            publisher.publish(name, key);
+        }
     }
 }
@@ -1,10 +1,20 @@
 package org.sunshine.core.cache.support;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.sunshine.core.cache.properties.CustomCacheProperties;
+import org.sunshine.core.cache.redisson.Locker;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -12,7 +22,7 @@ import java.util.concurrent.ConcurrentMap;
  * @author Teamo
  * @since 2023/3/10
  */
-public class CustomCacheManager implements CacheManager {
+public class CustomCacheManager implements CacheManager, DisposableBean {
 
     private final ConcurrentMap<String, Cache> cacheConcurrentMap = new ConcurrentHashMap<>();
 
@@ -20,9 +30,40 @@ public class CustomCacheManager implements CacheManager {
 
     private final CacheManager remoteCacheManager;
 
+    @Nullable
+    private final CacheMessagePublisher publisher;
+
+    @Nullable
+    private final Locker locker;
+
+    private final CustomCacheProperties properties;
+
+    /**
+     * 后台刷新线程池，没有缓存开启提前刷新时为null
+     */
+    @Nullable
+    private final ThreadPoolTaskExecutor refreshExecutor;
+
     public CustomCacheManager(CacheManager localCacheManager, CacheManager remoteCacheManager) {
+        this(localCacheManager, remoteCacheManager, null, null, new CustomCacheProperties(), null);
+    }
+
+    public CustomCacheManager(CacheManager localCacheManager, CacheManager remoteCacheManager,
+                              @Nullable CacheMessagePublisher publisher, @Nullable Locker locker,
+                              CustomCacheProperties properties, @Nullable ThreadPoolTaskExecutor refreshExecutor) {
         this.localCacheManager = localCacheManager;
         this.remoteCacheManager = remoteCacheManager;
+        this.publisher = publisher;
+        this.locker = locker;
+        this.properties = properties;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdown();
+        }
     }
 
     @Override
@@ -38,7 +79,72 @@ public class CustomCacheManager implements CacheManager {
         return Collections.unmodifiableSet(cacheConcurrentMap.keySet());
     }
 
+    /**
+     * 失效本地缓存，未创建的缓存无需处理
+     *
+     * @param name 缓存名称
+     * @param key  缓存key，为null时清空整个本地缓存
+     */
+    public void clearLocal(String name, @Nullable String key) {
+        Cache cache = cacheConcurrentMap.get(name);
+        if (cache instanceof CustomCache) {
+            ((CustomCache) cache).clearLocal(key);
+        }
+    }
+
+    /**
+     * 获取所有缓存的统计信息
+     *
+     * @return 缓存名称 -> 统计信息
+     */
+    public Map<String, CustomCacheStats> getStats() {
+        Map<String, CustomCacheStats> stats = new LinkedHashMap<>();
+        cacheConcurrentMap.forEach((name, cache) -> {
+            if (cache instanceof CustomCache) {
+                stats.put(name, ((CustomCache) cache).getStats());
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * 当前节点ID
+     *
+     * @return 未开启同步时返回null
+     */
+    @Nullable
+    public String getNodeId() {
+        return publisher != null ? publisher.getNodeId() : null;
+    }
+
     private CustomCache createCustomCache(String name) {
-        return new CustomCache(name, localCacheManager.getCache(name), remoteCacheManager.getCache(name));
+        CustomCacheProperties.DistributedLoad distributedLoad = properties.getDistributedLoad();
+        CustomCacheProperties.CacheSpec spec = properties.getCacheSpec(name);
+        // 远程缓存的单独配置在RedisCacheManager初始化时注册
+        return new CustomCache(name, createLocalCache(name, spec), remoteCacheManager.getCache(name), publisher,
+                distributedLoad.isEnable() ? locker : null, distributedLoad, spec, refreshExecutor);
+    }
+
+    /**
+     * 创建本地缓存，未单独配置时使用默认的本地缓存管理器创建
+     *
+     * @param name 缓存名称
+     * @param spec 缓存配置
+     * @return 本地缓存
+     */
+    private Cache createLocalCache(String name, CustomCacheProperties.CacheSpec spec) {
+        if (!spec.hasLocalSpec()) {
+            return localCacheManager.getCache(name);
+        }
+        Duration expireAfterWrite = spec.getLocalExpireAfterWrite() != null ? spec.getLocalExpireAfterWrite() : properties.getLocalExpireAfterWrite();
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder().expireAfterWrite(expireAfterWrite);
+        if (spec.getLocalMaximumWeight() != null) {
+            // 按占用淘汰
+            caffeine.maximumWeight(spec.getLocalMaximumWeight().toBytes()).weigher(new CacheValueWeigher());
+        } else {
+            // 按条数淘汰
+            caffeine.maximumSize(spec.getLocalMaximumSize() != null ? spec.getLocalMaximumSize() : properties.getLocalMaximumSize());
+        }
+        return new CaffeineCache(name, caffeine.build(), spec.isCacheNullValues());
     }
 }
@@ -0,0 +1,102 @@
+package org.sunshine.core.cache.support;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存统计
+ *
+ * @author Teamo
+ * @since 2024/8/13
+ */
+public class CustomCacheStats {
+
+    /**
+     * 本地缓存命中次数
+     */
+    private final LongAdder localHitCount = new LongAdder();
+
+    /**
+     * 远程缓存命中次数
+     */
+    private final LongAdder remoteHitCount = new LongAdder();
+
+    /**
+     * 未命中次数
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * 执行valueLoader加载的次数
+     */
+    private final LongAdder loadCount = new LongAdder();
+
+    /**
+     * 等待同一key正在进行的加载而未重复加载的次数
+     */
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 返回旧值并提交后台刷新的次数
+     */
+    private final LongAdder refreshCount = new LongAdder();
+
+    void recordLocalHit() {
+        localHitCount.increment();
+    }
+
+    void recordRemoteHit() {
+        remoteHitCount.increment();
+    }
+
+    void recordMiss() {
+        missCount.increment();
+    }
+
+    void recordLoad() {
+        loadCount.increment();
+    }
+
+    void recordCoalesced() {
+        coalescedCount.increment();
+    }
+
+    void recordRefresh() {
+        refreshCount.increment();
+    }
+
+    public long getLocalHitCount() {
+        return localHitCount.sum();
+    }
+
+    public long getRemoteHitCount() {
+        return remoteHitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CustomCacheStats{" +
+                "localHitCount=" + getLocalHitCount() +
+                ", remoteHitCount=" + getRemoteHitCount() +
+                ", missCount=" + getMissCount() +
+                ", loadCount=" + getLoadCount() +
+                ", coalescedCount=" + getCoalescedCount() +
+                ", refreshCount=" + getRefreshCount() +
+                '}';
+    }
+}
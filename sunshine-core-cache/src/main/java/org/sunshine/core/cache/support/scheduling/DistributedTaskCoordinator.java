@@ -0,0 +1,290 @@
+package org.sunshine.core.cache.support.scheduling;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+import org.sunshine.core.cache.properties.RedissonProperties;
+import org.sunshine.core.tool.util.INetUtils;
+import org.sunshine.core.tool.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分布式任务协调，基于Redis实现选主及分片。
+ * 选主模式下只有持有租期的主节点执行任务，主节点按心跳间隔续期，下线或续期失败后由其他节点接替；
+ * 分片模式下将任务拆分为多个分片，按存活节点列表轮流分配，节点下线后由剩余节点重新分配
+ *
+ * @author Teamo
+ * @since 2024/8/28
+ */
+public class DistributedTaskCoordinator implements InitializingBean, DisposableBean {
+
+    private final static Logger log = LoggerFactory.getLogger(DistributedTaskCoordinator.class);
+
+    private final static String LEASE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/leader_lease.lua")).getScriptAsString();
+
+    private final static String RELEASE_SCRIPT = RedisScript.of(new ClassPathResource("scripts/leader_release.lua")).getScriptAsString();
+
+    private final RedissonClient redissonClient;
+
+    private final RedissonProperties.Scheduling properties;
+
+    private final String instanceId;
+
+    private final long leaseMillis;
+
+    /**
+     * 任务名称 -> 主节点租期
+     */
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    /**
+     * 任务名称 -> 按实例ID排序的存活节点
+     */
+    private final Map<String, List<String>> members = new ConcurrentHashMap<>();
+
+    /**
+     * 统计名称 -> 统计，选主任务使用任务名称，分片任务使用任务名称#分片序号
+     */
+    private final Map<String, TaskRunStats> stats = new ConcurrentHashMap<>();
+
+    private ThreadPoolTaskScheduler heartbeatScheduler;
+
+    public DistributedTaskCoordinator(RedissonClient redissonClient, RedissonProperties.Scheduling properties) {
+        // 心跳间隔不小于租期的一半时，一次心跳失败即会被视为下线
+        Assert.isTrue(properties.getHeartbeatInterval().multipliedBy(2L).compareTo(properties.getLeaseTime()) < 0,
+                "spring.redis.redisson.scheduling.heartbeat-interval must be less than half of lease-time");
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        this.instanceId = StringUtils.isNotBlank(properties.getInstanceId()) ? properties.getInstanceId()
+                : INetUtils.getHostIp() + ":" + ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+        this.leaseMillis = properties.getLeaseTime().toMillis();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("distributed-task-heartbeat-");
+        heartbeatScheduler.initialize();
+        heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat, properties.getHeartbeatInterval());
+    }
+
+    @Override
+    public void destroy() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdown();
+        }
+        // 主动释放租期并退出节点列表，其他节点在下次心跳时即可接替，无需等待超时
+        leases.forEach((name, lease) -> {
+            if (lease.held) {
+                try {
+                    redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT,
+                            RScript.ReturnType.INTEGER, Collections.singletonList(leaderKey(name)), instanceId);
+                } catch (Exception e) {
+                    log.warn("Failed to release leader lease, task: {}", name, e);
+                }
+            }
+        });
+        members.keySet().forEach(name -> {
+            try {
+                redissonClient.getScoredSortedSet(membersKey(name), StringCodec.INSTANCE).remove(instanceId);
+            } catch (Exception e) {
+                log.warn("Failed to leave task members, task: {}", name, e);
+            }
+        });
+    }
+
+    /**
+     * 当前节点是否为主节点，首次调用时参与选主，此后由心跳续期
+     *
+     * @param name 任务名称
+     * @return boolean
+     */
+    public boolean isLeader(String name) {
+        Lease lease = leases.computeIfAbsent(name, this::acquireLease);
+        // 续期线程停顿超过租期时，租期可能已被其他节点获取
+        return lease.held && System.nanoTime() - lease.renewedAt < leaseMillis * 1_000_000L;
+    }
+
+    /**
+     * 仅在主节点执行任务
+     *
+     * @param name 任务名称
+     * @param task 任务
+     */
+    public void executeOnLeader(String name, DistributedTaskScheduling task) {
+        TaskRunStats taskStats = stats.computeIfAbsent(name, key -> new TaskRunStats());
+        if (!isLeader(name)) {
+            taskStats.recordSkipped();
+            return;
+        }
+        run(name, taskStats, task);
+    }
+
+    /**
+     * 分片执行任务，分片按存活节点轮流分配，当前节点只执行分配到的分片。
+     * 节点变化期间各节点看到的节点列表可能短暂不一致，分片执行时加锁，同一分片不会同时在多个节点执行
+     *
+     * @param name       任务名称
+     * @param shardCount 分片总数
+     * @param task       任务
+     */
+    public void executeSharded(String name, int shardCount, ShardedTaskScheduling task) {
+        Assert.isTrue(shardCount > 0, "shardCount must be greater than 0");
+        List<String> live = members.computeIfAbsent(name, this::heartbeat);
+        int index = live.indexOf(instanceId);
+        if (index < 0) {
+            // 心跳未写入成功，等待下次心跳
+            return;
+        }
+        for (int shard = index; shard < shardCount; shard += live.size()) {
+            runShard(name, shard, shardCount, task);
+        }
+    }
+
+    /**
+     * 获取任务执行统计
+     *
+     * @return 统计名称 -> 统计
+     */
+    public Map<String, TaskRunStats> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * 获取任务的存活节点
+     *
+     * @param name 任务名称
+     * @return 按实例ID排序的存活节点
+     */
+    public List<String> getMembers(String name) {
+        return members.getOrDefault(name, Collections.emptyList());
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    private void runShard(String name, int shard, int shardCount, ShardedTaskScheduling task) {
+        String statsName = name + "#" + shard;
+        TaskRunStats taskStats = stats.computeIfAbsent(statsName, key -> new TaskRunStats());
+        // 不指定租期，由看门狗续期，分片执行时间可以超过心跳间隔
+        RLock lock = redissonClient.getLock(properties.getKeyPrefix() + "shard:" + name + ":" + shard);
+        if (!lock.tryLock()) {
+            taskStats.recordSkipped();
+            return;
+        }
+        try {
+            run(statsName, taskStats, () -> task.task(shard, shardCount));
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void run(String statsName, TaskRunStats taskStats, DistributedTaskScheduling task) {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            task.task();
+            succeeded = true;
+        } catch (Exception e) {
+            log.error("Failed to execute distributed task: {}", statsName, e);
+        } finally {
+            taskStats.recordRun(System.nanoTime() - start, succeeded);
+        }
+    }
+
+    /**
+     * 续期所有主节点租期，上报所有分片任务的心跳并刷新节点列表
+     */
+    private void heartbeat() {
+        leases.keySet().forEach(name -> leases.put(name, acquireLease(name)));
+        members.keySet().forEach(name -> members.put(name, heartbeat(name)));
+    }
+
+    private Lease acquireLease(String name) {
+        long start = System.nanoTime();
+        try {
+            Long held = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, LEASE_SCRIPT,
+                    RScript.ReturnType.INTEGER, Collections.singletonList(leaderKey(name)), instanceId, String.valueOf(leaseMillis));
+            return new Lease(held != null && held == 1L, start);
+        } catch (Exception e) {
+            log.error("Failed to acquire leader lease, task: {}", name, e);
+            return new Lease(false, start);
+        }
+    }
+
+    /**
+     * 上报心跳，移除超时的节点，一次往返完成
+     *
+     * @param name 任务名称
+     * @return 按实例ID排序的存活节点，失败时为空
+     */
+    private List<String> heartbeat(String name) {
+        long now = System.currentTimeMillis();
+        try {
+            RBatch batch = redissonClient.createBatch();
+            RScoredSortedSetAsync<String> set = batch.getScoredSortedSet(membersKey(name), StringCodec.INSTANCE);
+            set.addAsync(now, instanceId);
+            set.removeRangeByScoreAsync(0, true, now - leaseMillis, false);
+            RFuture<Collection<String>> range = set.valueRangeAsync(0, -1);
+            set.expireAsync(properties.getLeaseTime().multipliedBy(2L));
+            batch.execute();
+            // 按实例ID排序，各节点分配结果一致
+            List<String> live = new ArrayList<>(range.toCompletableFuture().join());
+            Collections.sort(live);
+            return live;
+        } catch (Exception e) {
+            // 视为离线，不执行任何分片
+            log.error("Failed to send heartbeat, task: {}", name, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private String leaderKey(String name) {
+        return properties.getKeyPrefix() + "leader:" + name;
+    }
+
+    private String membersKey(String name) {
+        return properties.getKeyPrefix() + "members:" + name;
+    }
+
+    /**
+     * 主节点租期
+     */
+    private static class Lease {
+
+        private final boolean held;
+
+        /**
+         * 发起续期的时间(纳秒)，租期从该时间开始计算
+         */
+        private final long renewedAt;
+
+        Lease(boolean held, long renewedAt) {
+            this.held = held;
+            this.renewedAt = renewedAt;
+        }
+    }
+}
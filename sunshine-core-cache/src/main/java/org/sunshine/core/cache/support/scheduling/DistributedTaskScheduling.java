@@ -24,7 +24,7 @@ public interface DistributedTaskScheduling {
     void task() throws Exception;
 
     /**
-     * 执行
+     * 执行，每次执行时尝试加锁，需要固定主节点或分片执行时使用{@link DistributedTaskCoordinator}
      *
      * @param lockKey 锁名称
      */
@@ -0,0 +1,20 @@
+package org.sunshine.core.cache.support.scheduling;
+
+/**
+ * 分片定时任务接口，配合{@link DistributedTaskCoordinator#executeSharded(String, int, ShardedTaskScheduling)}使用
+ *
+ * @author Teamo
+ * @since 2024/8/28
+ */
+@FunctionalInterface
+public interface ShardedTaskScheduling {
+
+    /**
+     * 执行一个分片
+     *
+     * @param shard      分片序号，从0开始
+     * @param shardCount 分片总数
+     * @throws Exception Exception
+     */
+    void task(int shard, int shardCount) throws Exception;
+}
@@ -0,0 +1,100 @@
+package org.sunshine.core.cache.support.scheduling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分布式任务执行统计
+ *
+ * @author Teamo
+ * @since 2024/8/28
+ */
+public class TaskRunStats {
+
+    /**
+     * 执行次数
+     */
+    private final LongAdder runCount = new LongAdder();
+
+    /**
+     * 执行失败的次数
+     */
+    private final LongAdder failureCount = new LongAdder();
+
+    /**
+     * 非主节点或分片正在其他节点执行、跳过的次数
+     */
+    private final LongAdder skippedCount = new LongAdder();
+
+    /**
+     * 执行总耗时(纳秒)
+     */
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * 执行最大耗时(纳秒)
+     */
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    /**
+     * 最后一次执行的时间戳
+     */
+    private volatile long lastRunTime;
+
+    /**
+     * 记录一次执行
+     *
+     * @param nanos     耗时
+     * @param succeeded 是否成功
+     */
+    public void recordRun(long nanos, boolean succeeded) {
+        runCount.increment();
+        if (!succeeded) {
+            failureCount.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        lastRunTime = System.currentTimeMillis();
+    }
+
+    public void recordSkipped() {
+        skippedCount.increment();
+    }
+
+    public long getRunCount() {
+        return runCount.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+    }
+
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    public long getLastRunTime() {
+        return lastRunTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskRunStats{" +
+                "runCount=" + getRunCount() +
+                ", failureCount=" + getFailureCount() +
+                ", skippedCount=" + getSkippedCount() +
+                ", totalMillis=" + getTotalMillis() +
+                ", maxMillis=" + getMaxMillis() +
+                ", lastRunTime=" + getLastRunTime() +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+local limit = tonumber(ARGV[1])
+local expire_time = tonumber(ARGV[2])
+local permits = tonumber(ARGV[3])
+
+local current_count = tonumber(redis.call('GET', KEYS[1]) or '0')
+local granted = math.min(permits, limit - current_count)
+
+if granted <= 0 then
+    return {0, redis.call('PTTL', KEYS[1])}
+end
+
+local new_count = redis.call('INCRBY', KEYS[1], granted)
+if new_count == granted then
+    redis.call('EXPIRE', KEYS[1], expire_time)
+end
+return {granted, redis.call('PTTL', KEYS[1])}
@@ -0,0 +1,22 @@
+-- 每个请求的间隔(毫秒)
+local emission_interval = tonumber(ARGV[1])
+local burst = tonumber(ARGV[2])
+
+-- 使用Redis服务器时间，避免各节点时钟不一致
+redis.replicate_commands()
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + tonumber(time[2]) / 1000
+
+-- 理论到达时间
+local tat = tonumber(redis.call('GET', KEYS[1]))
+if not tat or tat < now then
+    tat = now
+end
+
+local new_tat = tat + emission_interval
+if new_tat - now > emission_interval * burst then
+    return 0
+end
+
+redis.call('SET', KEYS[1], tostring(new_tat), 'PX', tostring(math.ceil(new_tat - now)))
+return 1
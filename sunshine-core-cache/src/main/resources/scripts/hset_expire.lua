@@ -0,0 +1,6 @@
+local expire_time = tonumber(ARGV[1])
+for i = 2, #ARGV, 2 do
+    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+end
+redis.call('EXPIRE', KEYS[1], expire_time)
+return 1
@@ -0,0 +1,13 @@
+-- 获取或续期主节点租期，KEYS[1]为主节点key，ARGV[1]为实例ID，ARGV[2]为租期(毫秒)
+local owner = redis.call('GET', KEYS[1])
+
+if not owner then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+    return 1
+end
+
+if owner == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return 1
+end
+return 0
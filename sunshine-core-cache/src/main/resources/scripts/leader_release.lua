@@ -0,0 +1,5 @@
+-- 释放主节点租期，仅当前主节点可以释放，KEYS[1]为主节点key，ARGV[1]为实例ID
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,7 @@
+local expire_time = tonumber(ARGV[1])
+local size = 0
+for i = 2, #ARGV do
+    size = redis.call('RPUSH', KEYS[1], ARGV[i])
+end
+redis.call('EXPIRE', KEYS[1], expire_time)
+return size
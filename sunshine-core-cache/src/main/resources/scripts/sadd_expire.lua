@@ -0,0 +1,7 @@
+local expire_time = tonumber(ARGV[1])
+local count = 0
+for i = 2, #ARGV do
+    count = count + redis.call('SADD', KEYS[1], ARGV[i])
+end
+redis.call('EXPIRE', KEYS[1], expire_time)
+return count
@@ -0,0 +1,25 @@
+local group = ARGV[1]
+local consumer = ARGV[2]
+local max_deliveries = tonumber(ARGV[6])
+
+local claimed = redis.call('XAUTOCLAIM', KEYS[1], group, consumer, ARGV[3], ARGV[4], 'COUNT', ARGV[5])
+local records = {}
+local dead_lettered = 0
+
+for _, record in ipairs(claimed[2]) do
+    -- Redis 6.2中已删除的消息返回nil，Redis 7会直接从pending列表移除
+    if type(record) == 'table' and record[2] then
+        local id = record[1]
+        local pending = redis.call('XPENDING', KEYS[1], group, id, id, 1)
+        local delivery_count = pending[1] and pending[1][4] or 0
+        if max_deliveries > 0 and delivery_count > max_deliveries then
+            redis.call('XADD', KEYS[2], '*', unpack(record[2]))
+            redis.call('XACK', KEYS[1], group, id)
+            dead_lettered = dead_lettered + 1
+        else
+            records[#records + 1] = record
+        end
+    end
+end
+
+return {claimed[1], records, dead_lettered}
@@ -0,0 +1,28 @@
+local capacity = tonumber(ARGV[1])
+-- 每毫秒生成的令牌数
+local rate = tonumber(ARGV[2])
+
+-- 使用Redis服务器时间，避免各节点时钟不一致
+redis.replicate_commands()
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'timestamp')
+local tokens = tonumber(bucket[1])
+local timestamp = tonumber(bucket[2])
+if not tokens then
+    tokens = capacity
+    timestamp = now
+end
+
+tokens = math.min(capacity, tokens + math.max(0, now - timestamp) * rate)
+local allowed = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+    allowed = 1
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'timestamp', tostring(now))
+-- 令牌桶充满后状态与不存在时一致，过期即可
+redis.call('PEXPIRE', KEYS[1], tostring(math.ceil(capacity / rate)))
+return allowed
@@ -1,26 +1,78 @@
 package org.sunshine.core.log;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.Assert;
+import org.sunshine.core.cache.RedisMQTemplate;
 import org.sunshine.core.log.aspect.OperateLogAspect;
 import org.sunshine.core.log.event.OperateLogListener;
 import org.sunshine.core.log.filter.TraceFilter;
+import org.sunshine.core.log.properties.OperateLogProperties;
+import org.sunshine.core.log.sink.CompositeLogSink;
+import org.sunshine.core.log.sink.DatabaseLogSink;
+import org.sunshine.core.log.sink.FileLogSink;
+import org.sunshine.core.log.sink.LogSink;
+import org.sunshine.core.log.sink.RedisStreamLogSink;
+import org.sunshine.core.log.util.OperateLogUtils;
+import org.sunshine.core.log.writer.OperateLogJournal;
+import org.sunshine.core.log.writer.OperateLogSpill;
+import org.sunshine.core.log.writer.OperateLogWriter;
 import org.sunshine.core.tool.config.ServerInfo;
 import org.sunshine.core.tool.enums.WebFilterOrderEnum;
 
+import java.util.stream.Collectors;
+
 /**
  * @author Teamo
  * @since 2023/01/13
  */
-@AutoConfiguration
+@AutoConfiguration(afterName = "org.sunshine.core.cache.config.RedisStreamAutoConfiguration")
+@EnableConfigurationProperties(OperateLogProperties.class)
 public class LogAutoConfiguration {
 
+    @Bean
+    @ConditionalOnMissingBean(OperateLogSpill.class)
+    @ConditionalOnProperty(prefix = "operate-log.writer", name = "overflow-policy", havingValue = "spill")
+    public OperateLogSpill operateLogSpill(OperateLogProperties properties) {
+        OperateLogProperties.Writer writer = properties.getWriter();
+        Assert.hasText(writer.getSpillDir(), "operate-log.writer.spill-dir must be set when overflow-policy is SPILL");
+        return new OperateLogJournal(writer.getSpillDir(), writer.getSpillSegmentBytes(), writer.getSpillMaxBytes(), writer.getSpillRetention());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(DatabaseLogSink.class)
+    public DatabaseLogSink databaseLogSink() {
+        return new DatabaseLogSink();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(FileLogSink.class)
+    public FileLogSink fileLogSink(OperateLogProperties properties) {
+        OperateLogProperties.File file = properties.getSink().getFile();
+        return new FileLogSink(file.getDir(), file.getMaxFileBytes(), file.getRetention());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(OperateLogAppender.class)
+    public OperateLogWriter operateLogWriter(OperateLogProperties properties, ServerInfo serverInfo,
+                                             ObjectProvider<OperateLogSpill> operateLogSpill, ObjectProvider<LogSink> logSinks) {
+        LogSink sink = CompositeLogSink.of(properties.getSink().getTypes(), logSinks.orderedStream().collect(Collectors.toList()));
+        return new OperateLogWriter(properties.getWriter(), serverInfo, operateLogSpill.getIfAvailable(), sink);
+    }
+
     @Bean
     @ConditionalOnMissingBean(LogExecutor.class)
-    public LogExecutor logExecutor() {
-        return new SimpleLogExecutor();
+    public LogExecutor logExecutor(OperateLogAppender operateLogAppender) {
+        return new SimpleLogExecutor(operateLogAppender);
     }
 
     @Bean
@@ -29,10 +81,18 @@ public class LogAutoConfiguration {
         return new OperateLogAspect(logExecutor);
     }
 
+    /**
+     * 所有单例创建完成后设置{@link OperateLogUtils}使用的appender
+     */
+    @Bean
+    public SmartInitializingSingleton operateLogUtilsInitializer(OperateLogAppender operateLogAppender) {
+        return () -> OperateLogUtils.setAppender(operateLogAppender);
+    }
+
     @Bean
     @ConditionalOnMissingBean(OperateLogListener.class)
-    public OperateLogListener apiLogListener(ServerInfo serverInfo) {
-        return new OperateLogListener(serverInfo);
+    public OperateLogListener apiLogListener(OperateLogAppender operateLogAppender) {
+        return new OperateLogListener(operateLogAppender);
     }
 
     @Bean
@@ -41,4 +101,17 @@ public class LogAutoConfiguration {
         filter.setOrder(WebFilterOrderEnum.TRACE_FILTER.getOrder());
         return filter;
     }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(RedisMQTemplate.class)
+    static class RedisStreamLogSinkConfiguration {
+
+        @Bean
+        @ConditionalOnBean(RedisMQTemplate.class)
+        @ConditionalOnMissingBean(RedisStreamLogSink.class)
+        public RedisStreamLogSink redisStreamLogSink(RedisMQTemplate redisMQTemplate, OperateLogProperties properties) {
+            OperateLogProperties.RedisStream redisStream = properties.getSink().getRedisStream();
+            return new RedisStreamLogSink(redisMQTemplate, redisStream.getStreamKey(), redisStream.getPartitions());
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package org.sunshine.core.log;
+
+import org.sunshine.core.log.model.OperateLog;
+
+/**
+ * 操作日志写入接口，{@link LogExecutor}及{@link org.sunshine.core.log.util.OperateLogUtils}生成的日志直接交给该接口，
+ * 默认实现为{@link org.sunshine.core.log.writer.OperateLogWriter}
+ *
+ * @author Teamo
+ * @since 2024/9/1
+ */
+@FunctionalInterface
+public interface OperateLogAppender {
+
+    /**
+     * 写入日志，不应阻塞调用线程
+     *
+     * @param operateLog 日志
+     * @return 已接收时返回true，丢弃时返回false
+     */
+    boolean append(OperateLog operateLog);
+}
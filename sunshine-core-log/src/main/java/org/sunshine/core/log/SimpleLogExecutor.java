@@ -1,17 +1,19 @@
 package org.sunshine.core.log;
 
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.sunshine.core.log.annotation.OperateLog;
-import org.sunshine.core.log.event.OperateLogEvent;
 import org.sunshine.core.log.util.LogAbstractUtils;
-import org.sunshine.core.tool.util.SpringUtils;
 import org.sunshine.core.tool.util.StringUtils;
 import org.sunshine.core.tool.util.WebUtils;
 
-import java.util.Collections;
+import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Teamo
@@ -19,28 +21,64 @@ import java.util.Map;
  */
 public class SimpleLogExecutor implements LogExecutor {
 
+    private final OperateLogAppender operateLogAppender;
+
+    /**
+     * 方法 -> 日志标题、类名、方法名，每个方法只解析一次
+     */
+    private final Map<AnnotatedElementKey, LogMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    public SimpleLogExecutor(OperateLogAppender operateLogAppender) {
+        this.operateLogAppender = operateLogAppender;
+    }
+
     @Override
     public void execute(ProceedingJoinPoint point, OperateLog apiLog, long time) {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String className = point.getTarget().getClass().getName();
-        String methodName = point.getSignature().getName();
-
-        String value = apiLog.value();
+        LogMetadata metadata = getMetadata(point, apiLog);
         org.sunshine.core.log.model.OperateLog operateLog = new org.sunshine.core.log.model.OperateLog();
-        operateLog.setMethodClass(className);
-        operateLog.setMethodName(methodName);
+        operateLog.setMethodClass(metadata.className);
+        operateLog.setMethodName(metadata.methodName);
         operateLog.setTime(String.valueOf(time));
-        operateLog.setTitle(value);
+        operateLog.setTitle(metadata.title);
 
-        if (principal instanceof UserDetails) {
-            UserDetails userDetails = (UserDetails) principal;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetails) {
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             if (StringUtils.isNotEmpty(userDetails.getUsername())) {
                 operateLog.setCreateBy(userDetails.getUsername());
             }
         }
 
         LogAbstractUtils.addRequestInfoToLog(WebUtils.getRequest(), operateLog);
-        Map<String, Object> event = Collections.singletonMap(EVENT_LOG, operateLog);
-        SpringUtils.publishEvent(new OperateLogEvent(event));
+        operateLogAppender.append(operateLog);
+    }
+
+    private LogMetadata getMetadata(ProceedingJoinPoint point, OperateLog apiLog) {
+        Method method = ((MethodSignature) point.getSignature()).getMethod();
+        Class<?> targetClass = point.getTarget().getClass();
+        AnnotatedElementKey key = new AnnotatedElementKey(method, targetClass);
+        LogMetadata metadata = metadataCache.get(key);
+        if (metadata == null) {
+            metadata = metadataCache.computeIfAbsent(key, k -> new LogMetadata(apiLog.value(), targetClass.getName(), method.getName()));
+        }
+        return metadata;
+    }
+
+    /**
+     * 方法上解析好的日志信息
+     */
+    private static class LogMetadata {
+
+        private final String title;
+
+        private final String className;
+
+        private final String methodName;
+
+        LogMetadata(String title, String className, String methodName) {
+            this.title = title;
+            this.className = className;
+            this.methodName = methodName;
+        }
     }
 }
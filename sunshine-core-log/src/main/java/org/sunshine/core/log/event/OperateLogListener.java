@@ -1,36 +1,34 @@
 package org.sunshine.core.log.event;
 
-import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
-import org.springframework.scheduling.annotation.Async;
 import org.sunshine.core.log.LogExecutor;
+import org.sunshine.core.log.OperateLogAppender;
 import org.sunshine.core.log.model.OperateLog;
-import org.sunshine.core.log.util.LogAbstractUtils;
-import org.sunshine.core.tool.config.ServerInfo;
 
 import java.util.Map;
 
 /**
+ * 将{@link OperateLogEvent}中的日志交给{@link OperateLogAppender}，写入不阻塞，无需异步执行。
+ * 内置的日志已直接写入{@link OperateLogAppender}，不再发布事件，该监听用于兼容自行发布的事件
+ *
  * @author Teamo
  * @since 2021/06/02
  */
 public class OperateLogListener {
 
-    private final ServerInfo serverInfo;
+    private final OperateLogAppender operateLogAppender;
 
-    public OperateLogListener(ServerInfo serverInfo) {
-        this.serverInfo = serverInfo;
+    public OperateLogListener(OperateLogAppender operateLogAppender) {
+        this.operateLogAppender = operateLogAppender;
     }
 
-    @Async
     @Order
     @EventListener(OperateLogEvent.class)
     public void saveOperateLogLog(OperateLogEvent event) {
         @SuppressWarnings("unchecked")
         Map<String, Object> source = (Map<String, Object>) event.getSource();
         OperateLog operateLog = (OperateLog) source.get(LogExecutor.EVENT_LOG);
-        LogAbstractUtils.addOtherInfoToLog(operateLog, serverInfo);
-        SqlHelper.execute(OperateLog.class, baseMapper -> baseMapper.insert(operateLog));
+        operateLogAppender.append(operateLog);
     }
 }
@@ -0,0 +1,324 @@
+package org.sunshine.core.log.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 操作日志配置
+ *
+ * @author Teamo
+ * @since 2024/8/30
+ */
+@ConfigurationProperties("operate-log")
+public class OperateLogProperties {
+
+    /**
+     * 批量写入配置
+     */
+    private Writer writer = new Writer();
+
+    /**
+     * 持久化目标配置
+     */
+    private Sink sink = new Sink();
+
+    public Writer getWriter() {
+        return writer;
+    }
+
+    public void setWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    public static class Writer {
+
+        /**
+         * 缓冲区容量，向上取整为2的幂
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * 每批写入的最大条数
+         */
+        private int batchSize = 200;
+
+        /**
+         * 未达到批量大小时的最长等待时间
+         */
+        private Duration flushInterval = Duration.ofSeconds(1L);
+
+        /**
+         * 缓冲区已满时的处理策略
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        /**
+         * 策略为BLOCK时的最长阻塞时间，超时后丢弃
+         */
+        private Duration blockTimeout = Duration.ofMillis(100L);
+
+        /**
+         * 策略为SPILL时本地日志文件所在目录，必须配置，同一目录只能由一个实例使用
+         */
+        private String spillDir;
+
+        /**
+         * 本地日志文件的最大字节数，超过后删除最早的段
+         */
+        private long spillMaxBytes = 1024L * 1024L * 1024L;
+
+        /**
+         * 本地日志文件每段的字节数
+         */
+        private int spillSegmentBytes = 64 * 1024 * 1024;
+
+        /**
+         * 本地日志文件的保留时间，超过后未回放的段也会删除
+         */
+        private Duration spillRetention = Duration.ofDays(7L);
+
+        /**
+         * 缓冲区为空时检查并回放本地日志文件的间隔，回放失败后同样等待该间隔再重试
+         */
+        private Duration replayInterval = Duration.ofSeconds(5L);
+
+        /**
+         * 停止时等待缓冲区写完的最长时间
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10L);
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public Duration getBlockTimeout() {
+            return blockTimeout;
+        }
+
+        public void setBlockTimeout(Duration blockTimeout) {
+            this.blockTimeout = blockTimeout;
+        }
+
+        public String getSpillDir() {
+            return spillDir;
+        }
+
+        public void setSpillDir(String spillDir) {
+            this.spillDir = spillDir;
+        }
+
+        public long getSpillMaxBytes() {
+            return spillMaxBytes;
+        }
+
+        public void setSpillMaxBytes(long spillMaxBytes) {
+            this.spillMaxBytes = spillMaxBytes;
+        }
+
+        public int getSpillSegmentBytes() {
+            return spillSegmentBytes;
+        }
+
+        public void setSpillSegmentBytes(int spillSegmentBytes) {
+            this.spillSegmentBytes = spillSegmentBytes;
+        }
+
+        public Duration getSpillRetention() {
+            return spillRetention;
+        }
+
+        public void setSpillRetention(Duration spillRetention) {
+            this.spillRetention = spillRetention;
+        }
+
+        public Duration getReplayInterval() {
+            return replayInterval;
+        }
+
+        public void setReplayInterval(Duration replayInterval) {
+            this.replayInterval = replayInterval;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+    }
+
+    public static class Sink {
+
+        /**
+         * 写入的目标名称，多个时依次写入，可选database、redis-stream、file及自定义LogSink的名称
+         */
+        private List<String> types = new ArrayList<>(Collections.singletonList("database"));
+
+        /**
+         * Redis Stream目标配置
+         */
+        private RedisStream redisStream = new RedisStream();
+
+        /**
+         * 本地文件目标配置
+         */
+        private File file = new File();
+
+        public List<String> getTypes() {
+            return types;
+        }
+
+        public void setTypes(List<String> types) {
+            this.types = types;
+        }
+
+        public RedisStream getRedisStream() {
+            return redisStream;
+        }
+
+        public void setRedisStream(RedisStream redisStream) {
+            this.redisStream = redisStream;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public void setFile(File file) {
+            this.file = file;
+        }
+    }
+
+    public static class RedisStream {
+
+        /**
+         * stream key
+         */
+        private String streamKey = "operate-log";
+
+        /**
+         * 分区数，大于1时日志随机写入各子stream
+         */
+        private int partitions = 1;
+
+        public String getStreamKey() {
+            return streamKey;
+        }
+
+        public void setStreamKey(String streamKey) {
+            this.streamKey = streamKey;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+    }
+
+    public static class File {
+
+        /**
+         * 文件所在目录
+         */
+        private String dir = System.getProperty("java.io.tmpdir") + "/operate-log-ndjson";
+
+        /**
+         * 单个文件的最大字节数，超过后滚动
+         */
+        private long maxFileBytes = 100L * 1024L * 1024L;
+
+        /**
+         * 文件的保留时间
+         */
+        private Duration retention = Duration.ofDays(30L);
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        public long getMaxFileBytes() {
+            return maxFileBytes;
+        }
+
+        public void setMaxFileBytes(long maxFileBytes) {
+            this.maxFileBytes = maxFileBytes;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    /**
+     * 缓冲区已满时的处理策略
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 丢弃
+         */
+        DROP,
+
+        /**
+         * 阻塞调用线程直到有空位或超时
+         */
+        BLOCK,
+
+        /**
+         * 写入本地日志文件，LogSink恢复后回放
+         */
+        SPILL
+    }
+}
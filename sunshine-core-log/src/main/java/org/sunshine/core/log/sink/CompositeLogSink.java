@@ -0,0 +1,80 @@
+package org.sunshine.core.log.sink;
+
+import org.springframework.util.Assert;
+import org.sunshine.core.log.model.OperateLog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 同时写入多个{@link LogSink}，每批日志依次写入所有目标，任一目标失败时在全部写完后抛出异常。
+ * 失败的批次溢出后回放时会重新写入所有目标，已写入成功的目标可能出现重复日志
+ *
+ * @author Teamo
+ * @since 2024/9/2
+ */
+public class CompositeLogSink implements LogSink {
+
+    private final List<LogSink> sinks;
+
+    public CompositeLogSink(List<LogSink> sinks) {
+        Assert.notEmpty(sinks, "sinks must not be empty");
+        this.sinks = new ArrayList<>(sinks);
+    }
+
+    /**
+     * 按名称选择目标
+     *
+     * @param names      名称，按顺序写入
+     * @param candidates 可选的目标
+     * @return 只选择一个时直接返回该目标，否则返回{@link CompositeLogSink}
+     */
+    public static LogSink of(Collection<String> names, Collection<? extends LogSink> candidates) {
+        Assert.notEmpty(names, "operate-log.sink.types must not be empty");
+        Map<String, LogSink> byName = new LinkedHashMap<>();
+        candidates.forEach(sink -> byName.putIfAbsent(sink.getName(), sink));
+        List<LogSink> selected = new ArrayList<>(names.size());
+        for (String name : names) {
+            LogSink sink = byName.get(name.trim());
+            if (sink == null) {
+                throw new IllegalStateException("No LogSink named '" + name + "', available: " + byName.keySet());
+            }
+            if (!selected.contains(sink)) {
+                selected.add(sink);
+            }
+        }
+        return selected.size() == 1 ? selected.get(0) : new CompositeLogSink(selected);
+    }
+
+    @Override
+    public String getName() {
+        return sinks.stream().map(LogSink::getName).collect(Collectors.joining(","));
+    }
+
+    @Override
+    public void write(List<OperateLog> logs) throws Exception {
+        Exception failure = null;
+        for (LogSink sink : sinks) {
+            try {
+                sink.write(logs);
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public List<LogSink> getSinks() {
+        return sinks;
+    }
+}
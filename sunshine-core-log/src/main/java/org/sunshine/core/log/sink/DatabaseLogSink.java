@@ -0,0 +1,41 @@
+package org.sunshine.core.log.sink;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import org.sunshine.core.log.model.OperateLog;
+import org.sunshine.core.mp.mapper.BatchBaseMapper;
+
+import java.util.List;
+
+/**
+ * 写入数据库，Mapper继承{@link BatchBaseMapper}时使用insertBatchSomeColumn一次插入一批，否则逐条插入
+ *
+ * @author Teamo
+ * @since 2024/9/2
+ */
+public class DatabaseLogSink implements LogSink {
+
+    public static final String NAME = "database";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void write(List<OperateLog> logs) {
+        SqlHelper.execute(OperateLog.class, (BaseMapper<OperateLog> mapper) -> insert(mapper, logs));
+    }
+
+    @SuppressWarnings("unchecked")
+    private int insert(BaseMapper<OperateLog> mapper, List<OperateLog> logs) {
+        if (mapper instanceof BatchBaseMapper) {
+            return ((BatchBaseMapper<OperateLog>) mapper).insertBatchSomeColumn(logs);
+        }
+        int rows = 0;
+        for (OperateLog operateLog : logs) {
+            rows += mapper.insert(operateLog);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,160 @@
+package org.sunshine.core.log.sink;
+
+import com.alibaba.fastjson2.JSON;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.sunshine.core.log.model.OperateLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 写入本地NDJSON文件，每行一条日志，可由Filebeat、Kafka Connect等采集。
+ * 文件名为operate-log-日期-序号.ndjson，按天或超过maxFileBytes时滚动，超过保留时间的文件在滚动时删除。
+ * 每批日志序列化后一次写入
+ *
+ * @author Teamo
+ * @since 2024/9/2
+ */
+public class FileLogSink implements LogSink, DisposableBean {
+
+    private final static Logger log = LoggerFactory.getLogger(FileLogSink.class);
+
+    public static final String NAME = "file";
+
+    private final static String FILE_PREFIX = "operate-log-";
+
+    private final static String FILE_SUFFIX = ".ndjson";
+
+    private final static DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Path dir;
+
+    private final long maxFileBytes;
+
+    private final Duration retention;
+
+    private FileChannel channel;
+
+    private LocalDate currentDate;
+
+    private int currentIndex;
+
+    private long currentSize;
+
+    public FileLogSink(String dir, long maxFileBytes, Duration retention) {
+        this.dir = Paths.get(dir);
+        this.maxFileBytes = maxFileBytes;
+        this.retention = retention;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public synchronized void write(List<OperateLog> logs) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(logs.size() * 512);
+        for (OperateLog operateLog : logs) {
+            out.write(JSON.toJSONBytes(operateLog));
+            out.write('\n');
+        }
+        roll(out.size());
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        currentSize += out.size();
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * 日期变化或写入后超过maxFileBytes时切换到下一个文件，单批超过maxFileBytes时仍写入同一文件
+     *
+     * @param incoming 即将写入的字节数
+     */
+    private void roll(int incoming) throws IOException {
+        LocalDate today = LocalDate.now();
+        boolean sameDay = today.equals(currentDate);
+        if (channel != null && sameDay && (currentSize == 0L || currentSize + incoming <= maxFileBytes)) {
+            return;
+        }
+        int index;
+        if (channel == null) {
+            Files.createDirectories(dir);
+            index = lastIndex(today);
+        } else {
+            channel.close();
+            channel = null;
+            index = sameDay ? currentIndex + 1 : 0;
+        }
+        Path path = path(today, index);
+        if (Files.exists(path) && Files.size(path) > 0L && Files.size(path) + incoming > maxFileBytes) {
+            path = path(today, ++index);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentDate = today;
+        currentIndex = index;
+        currentSize = channel.size();
+        deleteExpired(path);
+    }
+
+    /**
+     * 获取当天已有文件的最大序号，重启后继续写入该文件
+     *
+     * @param date 日期
+     * @return 序号，没有文件时为0
+     */
+    private int lastIndex(LocalDate date) throws IOException {
+        String prefix = FILE_PREFIX + DATE_FORMATTER.format(date) + "-";
+        int index = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    index = Math.max(index, Integer.parseInt(name.substring(prefix.length(), name.length() - FILE_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // ignore
+                }
+            }
+        }
+        return index;
+    }
+
+    private void deleteExpired(Path current) {
+        long expiredBefore = System.currentTimeMillis() - retention.toMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                if (!file.equals(current) && Files.getLastModifiedTime(file).toMillis() < expiredBefore) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete expired operate log files in {}", dir, e);
+        }
+    }
+
+    private Path path(LocalDate date, int index) {
+        return dir.resolve(FILE_PREFIX + DATE_FORMATTER.format(date) + "-" + index + FILE_SUFFIX);
+    }
+}
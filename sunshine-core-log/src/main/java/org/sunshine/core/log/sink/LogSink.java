@@ -0,0 +1,30 @@
+package org.sunshine.core.log.sink;
+
+import org.sunshine.core.log.model.OperateLog;
+
+import java.util.List;
+
+/**
+ * 操作日志的持久化目标，由{@link org.sunshine.core.log.writer.OperateLogWriter}的写入线程按批调用。
+ * 通过operate-log.sink.types按名称选择，可同时选择多个
+ *
+ * @author Teamo
+ * @since 2024/9/2
+ */
+public interface LogSink {
+
+    /**
+     * 名称，与operate-log.sink.types中的值对应
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 写入一批日志，失败时抛出异常，由调用方决定写入溢出存储或丢弃
+     *
+     * @param logs 日志
+     * @throws Exception 写入失败
+     */
+    void write(List<OperateLog> logs) throws Exception;
+}
@@ -0,0 +1,51 @@
+package org.sunshine.core.log.sink;
+
+import com.alibaba.fastjson2.annotation.JSONField;
+import org.sunshine.core.cache.stream.AbstractStreamMessage;
+import org.sunshine.core.log.model.OperateLog;
+
+/**
+ * 写入Redis Stream的操作日志消息，消息体为{"type":日志类名,"log":日志}
+ *
+ * @author Teamo
+ * @since 2024/9/2
+ */
+public class OperateLogStreamMessage extends AbstractStreamMessage {
+
+    @JSONField(serialize = false)
+    private final String streamKey;
+
+    @JSONField(serialize = false)
+    private final int partitions;
+
+    private final String type;
+
+    private final OperateLog log;
+
+    public OperateLogStreamMessage(String streamKey, int partitions, OperateLog log) {
+        this.streamKey = streamKey;
+        this.partitions = partitions;
+        this.type = log.getClass().getName();
+        this.log = log;
+    }
+
+    @Override
+    @JSONField(serialize = false)
+    public String getStreamKey() {
+        return streamKey;
+    }
+
+    @Override
+    @JSONField(serialize = false)
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public OperateLog getLog() {
+        return log;
+    }
+}
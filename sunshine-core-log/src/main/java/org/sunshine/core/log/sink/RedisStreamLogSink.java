@@ -0,0 +1,45 @@
+package org.sunshine.core.log.sink;
+
+import org.sunshine.core.cache.RedisMQTemplate;
+import org.sunshine.core.log.model.OperateLog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 写入Redis Stream，每批日志通过{@link RedisMQTemplate#sendBatch}使用pipeline发送，由下游消费者异步写入审计存储。
+ * 保留条数按stream key在redis.stream配置
+ *
+ * @author Teamo
+ * @since 2024/9/2
+ */
+public class RedisStreamLogSink implements LogSink {
+
+    public static final String NAME = "redis-stream";
+
+    private final RedisMQTemplate redisMQTemplate;
+
+    private final String streamKey;
+
+    private final int partitions;
+
+    public RedisStreamLogSink(RedisMQTemplate redisMQTemplate, String streamKey, int partitions) {
+        this.redisMQTemplate = redisMQTemplate;
+        this.streamKey = streamKey;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void write(List<OperateLog> logs) {
+        List<OperateLogStreamMessage> messages = new ArrayList<>(logs.size());
+        for (OperateLog operateLog : logs) {
+            messages.add(new OperateLogStreamMessage(streamKey, partitions, operateLog));
+        }
+        redisMQTemplate.sendBatch(messages);
+    }
+}
@@ -1,6 +1,7 @@
 package org.sunshine.core.log.util;
 
 import org.sunshine.core.log.LogExecutor;
+import org.sunshine.core.log.OperateLogAppender;
 import org.sunshine.core.log.event.OperateLogEvent;
 import org.sunshine.core.log.model.OperateLog;
 import org.sunshine.core.tool.util.SpringUtils;
@@ -15,13 +16,29 @@ import java.util.Map;
  */
 public class OperateLogUtils extends LogAbstractUtils {
 
+    private static volatile OperateLogAppender appender;
+
+    /**
+     * 设置工具类使用的appender
+     *
+     * @param appender appender
+     */
+    public static void setAppender(OperateLogAppender appender) {
+        OperateLogUtils.appender = appender;
+    }
+
     /**
-     * 添加系统日志
+     * 添加系统日志，直接写入{@link OperateLogAppender}，未设置时发布{@link OperateLogEvent}
      *
      * @param log {@link OperateLog}
      */
     public static void addOperateLog(OperateLog log) {
         addRequestInfoToLog(WebUtils.getRequest(), log);
+        OperateLogAppender current = appender;
+        if (current != null) {
+            current.append(log);
+            return;
+        }
         Map<String, Object> event = Collections.singletonMap(LogExecutor.EVENT_LOG, log);
         SpringUtils.publishEvent(new OperateLogEvent(event));
     }
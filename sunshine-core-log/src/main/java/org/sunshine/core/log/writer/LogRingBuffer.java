@@ -0,0 +1,123 @@
+package org.sunshine.core.log.writer;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区，多个线程写入、单个线程读取。
+ * 每个槽位记录序号，写入线程通过CAS占用槽位，读取线程只读写自己的位置，不需要加锁
+ *
+ * @author Teamo
+ * @since 2024/8/30
+ */
+class LogRingBuffer<E> {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> buffer;
+
+    /**
+     * 槽位序号，等于写入位置时可写，等于写入位置+1时可读
+     */
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong head = new AtomicLong();
+
+    LogRingBuffer(int capacity) {
+        int size = 1;
+        while (size < Math.max(capacity, 2)) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入，可由多个线程同时调用
+     *
+     * @param e 元素
+     * @return 缓冲区已满时返回false
+     */
+    boolean offer(E e) {
+        long position = tail.get();
+        for (; ; ) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0L) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, e);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0L) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 读取，只能由一个线程调用
+     *
+     * @return 缓冲区为空时返回null
+     */
+    E poll() {
+        long position = head.get();
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E e = buffer.get(index);
+        buffer.lazySet(index, null);
+        sequences.set(index, position + capacity);
+        head.lazySet(position + 1);
+        return e;
+    }
+
+    /**
+     * 批量读取，只能由一个线程调用
+     *
+     * @param collection 目标集合
+     * @param maxElements 最多读取的数量
+     * @return 读取的数量
+     */
+    int drainTo(Collection<? super E> collection, int maxElements) {
+        int count = 0;
+        E e;
+        while (count < maxElements && (e = poll()) != null) {
+            collection.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 当前元素数，并发写入时为近似值
+     *
+     * @return int
+     */
+    int size() {
+        return (int) Math.max(0L, Math.min(tail.get() - head.get(), capacity));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,530 @@
+package org.sunshine.core.log.writer;
+
+import com.alibaba.fastjson2.JSON;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.sunshine.core.log.model.OperateLog;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * 操作日志本地日志文件，数据库写入跟不上或失败时追加写入，数据库恢复后由{@link OperateLogWriter}按批回放。
+ * <pre>
+ *     文件按固定大小分段并使用内存映射，写满后滚动到下一段，回放完的段删除；
+ *     每条记录为：长度(4字节) + CRC32(4字节) + 写入时间戳(8字节) + 内容，内容为类名 + 换行 + JSON，CRC覆盖时间戳及内容；
+ *     回放进度保存在检查点文件中，写入数据库成功后才推进，进程异常退出时可能重复回放最后一批
+ * </pre>
+ *
+ * @author Teamo
+ * @since 2024/8/31
+ */
+public class OperateLogJournal implements OperateLogSpill, InitializingBean, DisposableBean {
+
+    private final static Logger log = LoggerFactory.getLogger(OperateLogJournal.class);
+
+    private final static String SEGMENT_PREFIX = "operate-log-";
+
+    private final static String SEGMENT_SUFFIX = ".journal";
+
+    private final static String CHECKPOINT_FILE = "replay.checkpoint";
+
+    private final static String LOCK_FILE = "journal.lock";
+
+    private final static int HEADER_BYTES = 16;
+
+    private final Path dir;
+
+    private final int segmentBytes;
+
+    private final long maxBytes;
+
+    private final Duration retention;
+
+    /**
+     * 段序号 -> 文件
+     */
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private final Map<String, Class<? extends OperateLog>> types = new ConcurrentHashMap<>();
+
+    private final LongAdder appendedCount = new LongAdder();
+
+    private final LongAdder replayedCount = new LongAdder();
+
+    private final LongAdder corruptedCount = new LongAdder();
+
+    private final LongAdder evictedSegmentCount = new LongAdder();
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * 目录的独占锁，多个进程使用同一目录时会互相覆盖段文件
+     */
+    private FileChannel lockChannel;
+
+    private FileLock lock;
+
+    private MappedByteBuffer active;
+
+    private long activeSeq;
+
+    /**
+     * 当前写入段已写入的位置
+     */
+    private int activePosition;
+
+    private MappedByteBuffer replayBuffer;
+
+    private long replayBufferSeq = -1L;
+
+    private MappedByteBuffer checkpoint;
+
+    private long replaySeq;
+
+    private int replayPosition;
+
+    /**
+     * 最早一条未回放记录的写入时间，没有未回放记录时为0
+     */
+    private volatile long oldestPendingTimestamp;
+
+    public OperateLogJournal(String dir, int segmentBytes, long maxBytes, Duration retention) {
+        Assert.isTrue(segmentBytes > HEADER_BYTES, "segmentBytes is too small");
+        Assert.isTrue(maxBytes >= 2L * segmentBytes, "maxBytes must hold at least two segments");
+        this.dir = Paths.get(dir);
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.retention = retention;
+    }
+
+    @Override
+    public synchronized void afterPropertiesSet() throws IOException {
+        Files.createDirectories(dir);
+        lock();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), path);
+            }
+        }
+        checkpoint = map(dir.resolve(CHECKPOINT_FILE), 12L);
+        replaySeq = checkpoint.getLong(0);
+        replayPosition = checkpoint.getInt(8);
+
+        if (segments.isEmpty()) {
+            roll();
+        } else {
+            activeSeq = segments.lastKey();
+            active = map(segments.get(activeSeq), Math.max(Files.size(segments.get(activeSeq)), segmentBytes));
+            activePosition = recover(active);
+        }
+        oldestPendingTimestamp = peekTimestamp();
+        if (oldestPendingTimestamp > 0L) {
+            log.info("Operate log journal has {} bytes to replay, dir: {}", getReplayLagBytes(), dir);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (active != null) {
+            active.force();
+        }
+        if (checkpoint != null) {
+            checkpoint.force();
+        }
+        if (lockChannel != null) {
+            try {
+                // 关闭通道时释放锁
+                lockChannel.close();
+            } catch (IOException e) {
+                log.warn("Failed to release operate log journal lock, dir: {}", dir, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized int spill(Collection<? extends OperateLog> logs) {
+        int written = 0;
+        long now = System.currentTimeMillis();
+        for (OperateLog operateLog : logs) {
+            byte[] payload = (operateLog.getClass().getName() + "\n" + JSON.toJSONString(operateLog)).getBytes(StandardCharsets.UTF_8);
+            int recordBytes = HEADER_BYTES + payload.length;
+            if (recordBytes > segmentBytes) {
+                log.warn("Operate log is larger than journal segment, dropped, size: {}", recordBytes);
+                droppedCount.increment();
+                continue;
+            }
+            try {
+                if (activePosition + recordBytes > active.capacity()) {
+                    roll();
+                }
+            } catch (IOException e) {
+                log.error("Failed to roll operate log journal, dir: {}", dir, e);
+                droppedCount.add(logs.size() - written);
+                break;
+            }
+            ByteBuffer buffer = active.duplicate();
+            buffer.position(activePosition + 4);
+            buffer.putInt(crc(now, payload));
+            buffer.putLong(now);
+            buffer.put(payload);
+            // 长度最后写入，恢复时以长度为0作为结束
+            active.putInt(activePosition, payload.length);
+            activePosition += recordBytes;
+            written++;
+        }
+        appendedCount.add(written);
+        if (written > 0 && oldestPendingTimestamp == 0L) {
+            oldestPendingTimestamp = peekTimestamp();
+        }
+        return written;
+    }
+
+    @Override
+    public int replay(int maxRecords, Predicate<List<OperateLog>> consumer) {
+        List<OperateLog> logs = new ArrayList<>(maxRecords);
+        long seq;
+        int end;
+        synchronized (this) {
+            evictExpired();
+            for (; ; ) {
+                Map.Entry<Long, Path> entry = segments.ceilingEntry(replaySeq);
+                if (entry == null) {
+                    return 0;
+                }
+                if (entry.getKey() != replaySeq) {
+                    // 未回放的段已被清理
+                    replaySeq = entry.getKey();
+                    replayPosition = 0;
+                }
+                ByteBuffer buffer;
+                try {
+                    buffer = readBuffer(replaySeq);
+                } catch (IOException e) {
+                    log.error("Failed to read operate log journal segment: {}", entry.getValue(), e);
+                    return 0;
+                }
+                end = read(buffer, replayPosition, replaySeq == activeSeq ? activePosition : buffer.capacity(), maxRecords, logs);
+                if (!logs.isEmpty() || replaySeq == activeSeq) {
+                    break;
+                }
+                // 已回放完的段
+                deleteSegment(replaySeq);
+                replaySeq++;
+                replayPosition = 0;
+                saveCheckpoint();
+            }
+            seq = replaySeq;
+        }
+        if (logs.isEmpty() || !consumer.test(logs)) {
+            return 0;
+        }
+        synchronized (this) {
+            if (replaySeq == seq) {
+                replayPosition = end;
+                saveCheckpoint();
+            }
+            oldestPendingTimestamp = peekTimestamp();
+        }
+        replayedCount.add(logs.size());
+        return logs.size();
+    }
+
+    /**
+     * 未回放的字节数，已写满的段按段大小计算，为近似值
+     *
+     * @return long
+     */
+    @Override
+    public synchronized long getReplayLagBytes() {
+        long lag = 0L;
+        for (Long seq : segments.tailMap(replaySeq, true).keySet()) {
+            long size = seq == activeSeq ? activePosition : segmentBytes;
+            lag += seq == replaySeq ? Math.max(0L, size - replayPosition) : size;
+        }
+        return lag;
+    }
+
+    /**
+     * 最早一条未回放记录写入至今的时间
+     *
+     * @return 毫秒，没有未回放记录时为0
+     */
+    @Override
+    public long getReplayLagMillis() {
+        long timestamp = oldestPendingTimestamp;
+        return timestamp == 0L ? 0L : Math.max(0L, System.currentTimeMillis() - timestamp);
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getAppendedCount() {
+        return appendedCount.sum();
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.sum();
+    }
+
+    public long getCorruptedCount() {
+        return corruptedCount.sum();
+    }
+
+    public long getEvictedSegmentCount() {
+        return evictedSegmentCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 获取目录的独占锁，已被其他进程持有时启动失败
+     */
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 同一进程中已有实例使用该目录
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new IllegalStateException("Operate log journal dir is in use by another instance, "
+                    + "set a different operate-log.writer.spill-dir for each instance: " + dir.toAbsolutePath());
+        }
+    }
+
+    /**
+     * 从position开始读取记录
+     *
+     * @return 最后一条读取的记录的结束位置
+     */
+    private int read(ByteBuffer buffer, int position, int limit, int maxRecords, List<OperateLog> logs) {
+        while (logs.size() < maxRecords && position + HEADER_BYTES <= limit) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + HEADER_BYTES + length > limit) {
+                corrupted(position);
+                return limit;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer record = buffer.duplicate();
+            record.position(position + HEADER_BYTES);
+            record.get(payload);
+            if (buffer.getInt(position + 4) != crc(buffer.getLong(position + 8), payload)) {
+                corrupted(position);
+                return limit;
+            }
+            position += HEADER_BYTES + length;
+            OperateLog operateLog = decode(payload);
+            if (operateLog != null) {
+                logs.add(operateLog);
+            }
+        }
+        return position;
+    }
+
+    private void corrupted(int position) {
+        // 跳过当前段剩余部分
+        corruptedCount.increment();
+        log.error("Corrupted operate log journal record, segment: {}, position: {}", replaySeq, position);
+    }
+
+    private OperateLog decode(byte[] payload) {
+        String content = new String(payload, StandardCharsets.UTF_8);
+        int separator = content.indexOf('\n');
+        try {
+            Class<? extends OperateLog> type = types.computeIfAbsent(content.substring(0, separator), this::loadType);
+            return JSON.parseObject(content.substring(separator + 1), type);
+        } catch (Exception e) {
+            corruptedCount.increment();
+            log.error("Failed to decode operate log journal record", e);
+            return null;
+        }
+    }
+
+    private Class<? extends OperateLog> loadType(String className) {
+        try {
+            return Class.forName(className, false, OperateLog.class.getClassLoader()).asSubclass(OperateLog.class);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 找到写入段中最后一条完整记录的结束位置，之后的内容为异常退出时未写完的记录
+     */
+    private int recover(ByteBuffer buffer) {
+        int position = activeSeq == replaySeq ? replayPosition : 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer record = buffer.duplicate();
+            record.position(position + HEADER_BYTES);
+            record.get(payload);
+            if (buffer.getInt(position + 4) != crc(buffer.getLong(position + 8), payload)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        if (position + 4 <= buffer.capacity() && buffer.getInt(position) != 0) {
+            corruptedCount.increment();
+            log.warn("Operate log journal truncated at incomplete record, segment: {}, position: {}", activeSeq, position);
+        }
+        // 清除未写完的记录，避免之后的写入与其拼接
+        for (int i = position; i < Math.min(position + HEADER_BYTES, buffer.capacity()); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        return position;
+    }
+
+    private long peekTimestamp() {
+        Map.Entry<Long, Path> entry = segments.ceilingEntry(replaySeq);
+        while (entry != null) {
+            int position = entry.getKey() == replaySeq ? replayPosition : 0;
+            int limit = entry.getKey() == activeSeq ? activePosition : Integer.MAX_VALUE;
+            try {
+                ByteBuffer buffer = readBuffer(entry.getKey());
+                if (position + HEADER_BYTES <= Math.min(limit, buffer.capacity()) && buffer.getInt(position) > 0) {
+                    return buffer.getLong(position + 8);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to read operate log journal segment: {}", entry.getValue(), e);
+            }
+            entry = segments.higherEntry(entry.getKey());
+        }
+        return 0L;
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        long seq = segments.isEmpty() ? Math.max(replaySeq, 1L) : segments.lastKey() + 1;
+        Path path = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+        active = map(path, segmentBytes);
+        activeSeq = seq;
+        activePosition = 0;
+        segments.put(seq, path);
+        if (replaySeq == 0L) {
+            replaySeq = seq;
+            saveCheckpoint();
+        }
+        evictOversize();
+    }
+
+    /**
+     * 超过最大字节数时删除最早的段
+     */
+    private void evictOversize() {
+        while ((long) segments.size() * segmentBytes > maxBytes && segments.size() > 1) {
+            long seq = segments.firstKey();
+            log.warn("Operate log journal is full, evicting unreplayed segment: {}", segments.get(seq));
+            deleteSegment(seq);
+            evictedSegmentCount.increment();
+        }
+    }
+
+    /**
+     * 删除超过保留时间的段
+     */
+    private void evictExpired() {
+        long expireBefore = System.currentTimeMillis() - retention.toMillis();
+        while (segments.size() > 1) {
+            Map.Entry<Long, Path> entry = segments.firstEntry();
+            try {
+                if (Files.getLastModifiedTime(entry.getValue()).toMillis() >= expireBefore) {
+                    return;
+                }
+            } catch (IOException e) {
+                return;
+            }
+            log.warn("Operate log journal segment expired, evicting: {}", entry.getValue());
+            deleteSegment(entry.getKey());
+            evictedSegmentCount.increment();
+        }
+    }
+
+    private void deleteSegment(long seq) {
+        Path path = segments.remove(seq);
+        if (replayBufferSeq == seq) {
+            replayBuffer = null;
+            replayBufferSeq = -1L;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete operate log journal segment: {}", path, e);
+        }
+    }
+
+    private ByteBuffer readBuffer(long seq) throws IOException {
+        if (seq == activeSeq) {
+            return active.duplicate();
+        }
+        if (replayBufferSeq != seq) {
+            Path path = segments.get(seq);
+            replayBuffer = map(path, Files.size(path));
+            replayBufferSeq = seq;
+        }
+        return replayBuffer.duplicate();
+    }
+
+    private void saveCheckpoint() {
+        checkpoint.putLong(0, replaySeq);
+        checkpoint.putInt(8, replayPosition);
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw"); FileChannel channel = file.getChannel()) {
+            if (file.length() < size) {
+                file.setLength(size);
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+        }
+    }
+
+    private static int crc(long timestamp, byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        for (int i = 0; i < 8; i++) {
+            crc32.update((int) (timestamp >>> (i << 3)));
+        }
+        crc32.update(payload);
+        return (int) crc32.getValue();
+    }
+}
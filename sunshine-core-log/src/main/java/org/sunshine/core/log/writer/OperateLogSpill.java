@@ -0,0 +1,53 @@
+package org.sunshine.core.log.writer;
+
+import org.sunshine.core.log.model.OperateLog;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 操作日志溢出存储，缓冲区已满或写入数据库失败时使用
+ *
+ * @author Teamo
+ * @since 2024/8/30
+ */
+public interface OperateLogSpill {
+
+    /**
+     * 写入溢出存储
+     *
+     * @param logs 日志
+     * @return 写入成功的条数，超过容量时丢弃
+     */
+    int spill(Collection<? extends OperateLog> logs);
+
+    /**
+     * 读取最早的一批日志交给consumer写入，consumer返回true后才从溢出存储中移除
+     *
+     * @param maxRecords 最多读取的条数
+     * @param consumer   写入日志，成功时返回true
+     * @return 回放的条数，没有可回放的日志或consumer返回false时为0
+     */
+    default int replay(int maxRecords, Predicate<List<OperateLog>> consumer) {
+        return 0;
+    }
+
+    /**
+     * 未回放的字节数
+     *
+     * @return long
+     */
+    default long getReplayLagBytes() {
+        return 0L;
+    }
+
+    /**
+     * 最早一条未回放日志写入至今的时间
+     *
+     * @return 毫秒，没有未回放日志时为0
+     */
+    default long getReplayLagMillis() {
+        return 0L;
+    }
+}
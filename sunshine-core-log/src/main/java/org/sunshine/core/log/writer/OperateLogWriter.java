@@ -0,0 +1,359 @@
+package org.sunshine.core.log.writer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.sunshine.core.log.OperateLogAppender;
+import org.sunshine.core.log.model.OperateLog;
+import org.sunshine.core.log.properties.OperateLogProperties;
+import org.sunshine.core.log.sink.LogSink;
+import org.sunshine.core.log.util.LogAbstractUtils;
+import org.sunshine.core.tool.config.ServerInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 操作日志批量写入，日志先写入无锁环形缓冲区，由单个写入线程按批量大小或时间间隔批量写入{@link LogSink}。
+ * 缓冲区已满或写入失败时写入{@link OperateLogSpill}，缓冲区写完后由写入线程分批回放
+ *
+ * @author Teamo
+ * @since 2024/8/30
+ */
+public class OperateLogWriter implements OperateLogAppender, InitializingBean, DisposableBean {
+
+    private final static Logger log = LoggerFactory.getLogger(OperateLogWriter.class);
+
+    /**
+     * 缓冲区已满时的等待时间
+     */
+    private final static long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    /**
+     * 写入线程空闲时的最长等待时间，有新日志时由写入日志的线程唤醒
+     */
+    private final static long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1L);
+
+    private final OperateLogProperties.Writer properties;
+
+    private final ServerInfo serverInfo;
+
+    private final OperateLogSpill spill;
+
+    private final LogSink sink;
+
+    private final LogRingBuffer<OperateLog> buffer;
+
+    /**
+     * 写入缓冲区的条数
+     */
+    private final LongAdder enqueuedCount = new LongAdder();
+
+    /**
+     * 缓冲区已满或写入失败后丢弃的条数
+     */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * 写入溢出存储的条数
+     */
+    private final LongAdder spilledCount = new LongAdder();
+
+    /**
+     * 写入LogSink的条数
+     */
+    private final LongAdder writtenCount = new LongAdder();
+
+    /**
+     * 写入LogSink失败的条数
+     */
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * 从溢出存储回放到LogSink的条数
+     */
+    private final LongAdder replayedCount = new LongAdder();
+
+    private volatile boolean running;
+
+    /**
+     * 已停止，之后写入的日志不再进入缓冲区
+     */
+    private volatile boolean closed;
+
+    private volatile Thread writerThread;
+
+    /**
+     * 写入线程是否正在等待新日志
+     */
+    private volatile boolean writerParked;
+
+    private ThreadPoolTaskExecutor executor;
+
+    public OperateLogWriter(OperateLogProperties.Writer properties, ServerInfo serverInfo, OperateLogSpill spill, LogSink sink) {
+        this.properties = properties;
+        this.serverInfo = serverInfo;
+        this.spill = spill;
+        this.sink = sink;
+        this.buffer = new LogRingBuffer<>(properties.getBufferSize());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds((int) properties.getShutdownTimeout().getSeconds());
+        executor.setThreadNamePrefix("operate-log-writer-");
+        executor.initialize();
+        executor.execute(this::writeLoop);
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        running = false;
+        LockSupport.unpark(writerThread);
+        if (executor != null) {
+            // 等待写入线程写完缓冲区中的日志
+            executor.shutdown();
+            // 写入线程退出前最后写入缓冲区的日志，缓冲区只能由一个线程读取，写入线程未退出时不处理
+            if (executor.getThreadPoolExecutor().isTerminated()) {
+                List<OperateLog> remaining = new ArrayList<>();
+                buffer.drainTo(remaining, Integer.MAX_VALUE);
+                if (!remaining.isEmpty()) {
+                    spillOrDrop(remaining);
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入日志，不等待写入LogSink
+     *
+     * @param operateLog 日志
+     * @return 写入缓冲区或溢出存储时返回true，丢弃时返回false
+     */
+    @Override
+    public boolean append(OperateLog operateLog) {
+        // 在调用线程补齐服务器信息及创建时间，写入时间以日志产生时为准，不受批量间隔及积压影响
+        LogAbstractUtils.addOtherInfoToLog(operateLog, serverInfo);
+        if (closed) {
+            // 写入线程已退出，不再写入缓冲区
+            return spillOrDrop(Collections.singletonList(operateLog)) > 0;
+        }
+        if (buffer.offer(operateLog)) {
+            enqueuedCount.increment();
+            signalWriter();
+            return true;
+        }
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK:
+                if (offer(operateLog, properties.getBlockTimeout().toNanos())) {
+                    enqueuedCount.increment();
+                    signalWriter();
+                    return true;
+                }
+                break;
+            case SPILL:
+                if (spill != null && spill.spill(Collections.singletonList(operateLog)) > 0) {
+                    spilledCount.increment();
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        droppedCount.increment();
+        return false;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.sum();
+    }
+
+    public LogSink getSink() {
+        return sink;
+    }
+
+    /**
+     * 溢出存储中未回放的字节数
+     *
+     * @return long
+     */
+    public long getReplayLagBytes() {
+        return spill != null ? spill.getReplayLagBytes() : 0L;
+    }
+
+    /**
+     * 溢出存储中最早一条未回放日志写入至今的时间
+     *
+     * @return 毫秒，没有未回放日志时为0
+     */
+    public long getReplayLagMillis() {
+        return spill != null ? spill.getReplayLagMillis() : 0L;
+    }
+
+    /**
+     * 缓冲区中待写入的条数
+     *
+     * @return int
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * 无法写入缓冲区或LogSink的日志，溢出策略为SPILL时写入溢出存储，否则丢弃
+     *
+     * @param logs 日志
+     * @return 写入溢出存储的条数
+     */
+    private int spillOrDrop(List<OperateLog> logs) {
+        int spilled = spill != null && properties.getOverflowPolicy() == OperateLogProperties.OverflowPolicy.SPILL
+                ? spill.spill(logs) : 0;
+        spilledCount.add(spilled);
+        droppedCount.add(logs.size() - spilled);
+        return spilled;
+    }
+
+    /**
+     * 写入线程等待新日志时唤醒
+     */
+    private void signalWriter() {
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * 等待新日志，缓冲区不为空或已停止时立即返回
+     *
+     * @param nanos 最长等待时间
+     */
+    private void awaitLogs(long nanos) {
+        writerParked = true;
+        try {
+            // 设置标记后再次检查，避免错过设置标记前写入的日志
+            if (running && buffer.isEmpty()) {
+                LockSupport.parkNanos(this, nanos);
+            }
+        } finally {
+            writerParked = false;
+        }
+    }
+
+    private boolean offer(OperateLog operateLog, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (System.nanoTime() - deadline < 0L && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(PARK_NANOS);
+            if (buffer.offer(operateLog)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeLoop() {
+        writerThread = Thread.currentThread();
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        long replayIntervalNanos = properties.getReplayInterval().toNanos();
+        List<OperateLog> batch = new ArrayList<>(batchSize);
+        long firstAt = 0L;
+        long nextReplayAt = System.nanoTime();
+        while (running || !buffer.isEmpty()) {
+            boolean wasEmpty = batch.isEmpty();
+            int drained = buffer.drainTo(batch, batchSize - batch.size());
+            if (wasEmpty && drained > 0) {
+                firstAt = System.nanoTime();
+            }
+            if (batch.size() >= batchSize || (!batch.isEmpty() && System.nanoTime() - firstAt >= flushIntervalNanos)) {
+                flush(batch);
+                batch.clear();
+            } else if (drained == 0) {
+                // 缓冲区已写完时回放溢出的日志，每次一批，期间有新日志时优先写入新日志
+                if (batch.isEmpty() && running && spill != null && System.nanoTime() - nextReplayAt >= 0L) {
+                    if (replay(batchSize) > 0) {
+                        continue;
+                    }
+                    nextReplayAt = System.nanoTime() + replayIntervalNanos;
+                }
+                // 等待到本批的写入时间或下次回放时间，期间有新日志时被唤醒
+                long now = System.nanoTime();
+                long parkNanos = IDLE_PARK_NANOS;
+                if (!batch.isEmpty()) {
+                    parkNanos = Math.min(parkNanos, firstAt + flushIntervalNanos - now);
+                } else if (spill != null) {
+                    parkNanos = Math.min(parkNanos, nextReplayAt - now);
+                }
+                if (parkNanos > 0L) {
+                    awaitLogs(parkNanos);
+                }
+            }
+        }
+        flush(batch);
+    }
+
+    private int replay(int batchSize) {
+        try {
+            return spill.replay(batchSize, logs -> {
+                try {
+                    sink.write(logs);
+                } catch (Exception e) {
+                    log.warn("Failed to replay {} operate logs to {}, will retry later", logs.size(), sink.getName(), e);
+                    return false;
+                }
+                writtenCount.add(logs.size());
+                replayedCount.add(logs.size());
+                return true;
+            });
+        } catch (Exception e) {
+            log.error("Failed to replay operate logs", e);
+            return 0;
+        }
+    }
+
+    private void flush(List<OperateLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sink.write(batch);
+            writtenCount.add(batch.size());
+        } catch (Exception e) {
+            log.error("Failed to write {} operate logs to {}", batch.size(), sink.getName(), e);
+            failedCount.add(batch.size());
+            spillOrDrop(batch);
+        }
+    }
+}